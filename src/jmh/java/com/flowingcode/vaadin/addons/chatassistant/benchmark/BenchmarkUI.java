@@ -0,0 +1,70 @@
+/*-
+ * #%L
+ * Chat Assistant Add-on
+ * %%
+ * Copyright (C) 2023 - 2026 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.chatassistant.benchmark;
+
+import com.vaadin.flow.component.Component;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.virtuallist.VirtualList;
+import com.vaadin.flow.internal.StateTree;
+import com.vaadin.flow.server.VaadinSession;
+import java.util.Objects;
+
+/**
+ * UI with a session that is always locked by the benchmark thread, which simulates the server side
+ * of a client round trip without encoding the response.
+ */
+@SuppressWarnings("serial")
+class BenchmarkUI extends UI {
+
+  BenchmarkUI() {
+    VaadinSession session = new VaadinSession(null) {
+      @Override
+      public boolean hasLock() {
+        return true;
+      }
+
+      @Override
+      public void checkHasLock(String message) {}
+
+      @Override
+      public void checkHasLock() {}
+    };
+    getInternals().setSession(session);
+    UI.setCurrent(this);
+  }
+
+  /** Collects the changes and the JavaScript invocations that would be sent to the client. */
+  void roundTrip() {
+    StateTree stateTree = getInternals().getStateTree();
+    stateTree.runExecutionsBeforeClientResponse();
+    stateTree.collectChanges(change -> {});
+    getInternals().dumpPendingJavaScriptInvocations();
+  }
+
+  /** Returns the virtual list the messages of a chat assistant are rendered in. */
+  static VirtualList<?> virtualList(Component component) {
+    if (component instanceof VirtualList<?> list) {
+      return list;
+    }
+    return component.getChildren().map(BenchmarkUI::virtualList).filter(Objects::nonNull)
+        .findFirst().orElse(null);
+  }
+
+}
@@ -0,0 +1,137 @@
+/*-
+ * #%L
+ * Chat Assistant Add-on
+ * %%
+ * Copyright (C) 2023 - 2026 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.chatassistant.benchmark;
+
+import com.flowingcode.vaadin.addons.chatassistant.ChatAssistant;
+import com.flowingcode.vaadin.addons.chatassistant.model.Message;
+import com.vaadin.flow.component.virtuallist.VirtualList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Sends and streams messages through an attached chat assistant, simulating a client round trip
+ * after each operation. The client is assumed to be scrolled to the end of the conversation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ChatAssistantBenchmark {
+
+  private static final int MAX_MESSAGES = 1000;
+  private static final int TOKENS_PER_MESSAGE = 500;
+  private static final int VISIBLE_ROWS = 20;
+
+  @Param({"false", "true"})
+  public boolean markdown;
+
+  private BenchmarkUI ui;
+  private ChatAssistant<Message> chatAssistant;
+  private VirtualList<?> virtualList;
+  private List<Message> messages;
+  private Message streamed;
+  private int tokens;
+
+  @Setup(Level.Iteration)
+  public void setup() {
+    ui = new BenchmarkUI();
+    messages = new ArrayList<>();
+    chatAssistant = new ChatAssistant<>(messages, markdown);
+    virtualList = BenchmarkUI.virtualList(chatAssistant);
+    ui.add(chatAssistant);
+    ui.roundTrip();
+    startStreaming();
+  }
+
+  @TearDown(Level.Iteration)
+  public void tearDown() {
+    ui.removeAll();
+    ui.roundTrip();
+  }
+
+  /** Starts a new conversation when the current one is full, so that memory does not grow. */
+  private void trimConversation() {
+    if (messages.size() >= MAX_MESSAGES) {
+      messages.clear();
+      virtualList.getDataProvider().refreshAll();
+    }
+  }
+
+  private void startStreaming() {
+    trimConversation();
+    streamed = Message.builder().name("Assistant").content("").build();
+    chatAssistant.sendMessage(streamed);
+    tokens = 0;
+  }
+
+  /** Requests the rows at the end of the list, as the client does after scrolling to the end. */
+  private void followEnd() {
+    int size = messages.size();
+    virtualList.getDataCommunicator()
+        .setRequestedRange(Math.max(0, size - VISIBLE_ROWS), VISIBLE_ROWS);
+    ui.roundTrip();
+  }
+
+  private void nextToken() {
+    if (++tokens == TOKENS_PER_MESSAGE) {
+      startStreaming();
+      followEnd();
+    }
+  }
+
+  @Benchmark
+  public void sendMessage() {
+    trimConversation();
+    chatAssistant.sendMessage(Message.builder().name("User").content("How are you?").build());
+    followEnd();
+  }
+
+  @Benchmark
+  public void appendToMessage() {
+    chatAssistant.appendToMessage(streamed, "token ");
+    ui.roundTrip();
+    nextToken();
+  }
+
+  @Benchmark
+  public void updateMessage() {
+    streamed.setContent(streamed.getContent() + "token ");
+    chatAssistant.updateMessage(streamed);
+    ui.roundTrip();
+    nextToken();
+  }
+
+}
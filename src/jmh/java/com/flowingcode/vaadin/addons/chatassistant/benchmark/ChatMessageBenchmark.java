@@ -0,0 +1,95 @@
+/*-
+ * #%L
+ * Chat Assistant Add-on
+ * %%
+ * Copyright (C) 2023 - 2026 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.chatassistant.benchmark;
+
+import com.flowingcode.vaadin.addons.chatassistant.ChatMessage;
+import com.flowingcode.vaadin.addons.chatassistant.model.Message;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Displays messages in an attached {@link ChatMessage}, with and without markdown. The allocation
+ * reported by the {@code gc} profiler for {@link #create()} is the footprint of a new message.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ChatMessageBenchmark {
+
+  private static final String CONTENT = "## Answer\n\nThis is a *generated* answer with `code`:\n\n"
+      + "```java\nint a = 1;\n```\n\n- first item\n- second item\n";
+
+  @Param({"false", "true"})
+  public boolean markdown;
+
+  private BenchmarkUI ui;
+  private ChatMessage<Message> chatMessage;
+  private Message[] messages;
+  private int next;
+
+  @Setup(Level.Iteration)
+  public void setup() {
+    ui = new BenchmarkUI();
+    messages = new Message[2];
+    for (int i = 0; i < messages.length; i++) {
+      messages[i] = Message.builder().name("Assistant").avatar("chatbot.png")
+          .messageTime(LocalDateTime.now()).content(CONTENT + i).build();
+    }
+    chatMessage = new ChatMessage<>(messages[0], markdown);
+    ui.add(chatMessage);
+    ui.roundTrip();
+  }
+
+  @TearDown(Level.Iteration)
+  public void tearDown() {
+    ui.removeAll();
+    ui.roundTrip();
+  }
+
+  @Benchmark
+  public ChatMessage<Message> create() {
+    next = (next + 1) % messages.length;
+    return new ChatMessage<>(messages[next], markdown);
+  }
+
+  @Benchmark
+  public void setMessage() {
+    next = (next + 1) % messages.length;
+    chatMessage.setMessage(messages[next]);
+    ui.roundTrip();
+  }
+
+}
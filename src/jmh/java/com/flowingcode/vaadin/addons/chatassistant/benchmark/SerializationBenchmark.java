@@ -0,0 +1,160 @@
+/*-
+ * #%L
+ * Chat Assistant Add-on
+ * %%
+ * Copyright (C) 2023 - 2026 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.chatassistant.benchmark;
+
+import com.flowingcode.vaadin.addons.chatassistant.ChatAssistant;
+import com.flowingcode.vaadin.addons.chatassistant.model.Message;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Serializes and deserializes a chat assistant holding a conversation, as done by session
+ * replication and passivation. The serialized size is checked by {@code MessageSerializationTest}.
+ *
+ * <p>The messages of the conversation are also serialized on their own, and compared with
+ * messages holding the same fields as plain objects in the default serialized form.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+  @Param({"1000", "10000"})
+  public int messages;
+
+  /** Message with the fields and the default serialized form of the previous message model. */
+  @SuppressWarnings("serial")
+  private static class LegacyMessage implements Serializable {
+    UUID id;
+    String content;
+    boolean loading;
+    String name;
+    String avatar;
+    LocalDateTime messageTime;
+  }
+
+  private ChatAssistant<Message> chatAssistant;
+  private byte[] serialized;
+  private List<Message> conversation;
+  private byte[] serializedMessages;
+  private List<LegacyMessage> legacyConversation;
+  private byte[] serializedLegacyMessages;
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    conversation = new ArrayList<>(messages);
+    LocalDateTime time = LocalDateTime.now();
+    for (int i = 0; i < messages; i++) {
+      conversation.add(Message.builder().name(i % 2 == 0 ? "User" : "Assistant")
+          .messageTime(time.plusSeconds(i)).content("Message number " + i + ", how are you?")
+          .build());
+    }
+    chatAssistant = new ChatAssistant<>(conversation, false);
+    serialized = serialize();
+    serializedMessages = write(conversation);
+
+    legacyConversation = new ArrayList<>(messages);
+    for (Message message : conversation) {
+      LegacyMessage legacy = new LegacyMessage();
+      legacy.id = message.getId();
+      legacy.content = message.getContent();
+      legacy.loading = message.isLoading();
+      legacy.name = message.getName();
+      legacy.avatar = message.getAvatar();
+      legacy.messageTime = message.getMessageTime();
+      legacyConversation.add(legacy);
+    }
+    serializedLegacyMessages = write(legacyConversation);
+  }
+
+  @Benchmark
+  public byte[] serialize() throws IOException {
+    ByteArrayOutputStream baos =
+        new ByteArrayOutputStream(serialized != null ? serialized.length : 32);
+    try (ObjectOutputStream out = new ObjectOutputStream(baos)) {
+      out.writeObject(chatAssistant);
+    }
+    return baos.toByteArray();
+  }
+
+  @Benchmark
+  public Object deserialize() throws IOException, ClassNotFoundException {
+    return read(serialized);
+  }
+
+  @Benchmark
+  public byte[] serializeMessages() throws IOException {
+    return write(conversation);
+  }
+
+  @Benchmark
+  public byte[] serializeLegacyMessages() throws IOException {
+    return write(legacyConversation);
+  }
+
+  @Benchmark
+  public Object deserializeMessages() throws IOException, ClassNotFoundException {
+    return read(serializedMessages);
+  }
+
+  @Benchmark
+  public Object deserializeLegacyMessages() throws IOException, ClassNotFoundException {
+    return read(serializedLegacyMessages);
+  }
+
+  private static byte[] write(Object obj) throws IOException {
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(baos)) {
+      out.writeObject(obj);
+    }
+    return baos.toByteArray();
+  }
+
+  private static Object read(byte[] data) throws IOException, ClassNotFoundException {
+    try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(data))) {
+      return in.readObject();
+    }
+  }
+
+}
@@ -0,0 +1,288 @@
+/*-
+ * #%L
+ * Chat Assistant Add-on
+ * %%
+ * Copyright (C) 2023 - 2026 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.chatassistant;
+
+import com.flowingcode.vaadin.addons.chatassistant.model.Message;
+import com.vaadin.flow.function.SerializableConsumer;
+import com.vaadin.flow.shared.Registration;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * List of messages that keeps only the most recent messages, backed by a ring buffer. The list is
+ * bounded by a maximum number of messages and, optionally, by a maximum total content length
+ * (measured in characters). When a bound is exceeded, the oldest messages are evicted and handed to
+ * the eviction listeners, so that they can be persisted elsewhere. The most recent message is never
+ * evicted.
+ *
+ * <p>Instances of this class can be passed to {@link ChatAssistant#ChatAssistant(List, boolean)}.
+ *
+ * @param <T> the type of the messages
+ */
+@SuppressWarnings("serial")
+public class BoundedMessageList<T extends Message> extends AbstractList<T>
+    implements RandomAccess, Serializable {
+
+  private static final int INITIAL_CAPACITY = 16;
+
+  private final int maxMessages;
+  private final long maxContentLength;
+
+  private transient Object[] elements;
+  private transient int[] lengths;
+  private transient int head;
+  private transient int size;
+  private transient long contentLength;
+
+  private final List<SerializableConsumer<List<T>>> evictionListeners = new ArrayList<>();
+
+  /**
+   * Creates a list that keeps at most the given number of messages.
+   *
+   * @param maxMessages the maximum number of messages
+   */
+  public BoundedMessageList(int maxMessages) {
+    this(maxMessages, Long.MAX_VALUE);
+  }
+
+  /**
+   * Creates a list that keeps at most the given number of messages, whose content length adds up
+   * to at most the given number of characters.
+   *
+   * @param maxMessages the maximum number of messages
+   * @param maxContentLength the maximum total length of the content of the messages
+   */
+  public BoundedMessageList(int maxMessages, long maxContentLength) {
+    if (maxMessages < 1) {
+      throw new IllegalArgumentException("Max messages must be greater than 0");
+    }
+    if (maxContentLength < 1) {
+      throw new IllegalArgumentException("Max content length must be greater than 0");
+    }
+    this.maxMessages = maxMessages;
+    this.maxContentLength = maxContentLength;
+    int capacity = Math.min(maxMessages, INITIAL_CAPACITY);
+    this.elements = new Object[capacity];
+    this.lengths = new int[capacity];
+  }
+
+  /**
+   * Creates a list that keeps only the most recent messages whose content length adds up to at
+   * most the given number of characters.
+   *
+   * @param maxContentLength the maximum total length of the content of the messages
+   * @return a new list
+   */
+  public static <T extends Message> BoundedMessageList<T> withMaxContentLength(
+      long maxContentLength) {
+    return new BoundedMessageList<>(Integer.MAX_VALUE, maxContentLength);
+  }
+
+  /** Returns the maximum number of messages kept by this list. */
+  public int getMaxMessages() {
+    return maxMessages;
+  }
+
+  /** Returns the maximum total content length of the messages kept by this list. */
+  public long getMaxContentLength() {
+    return maxContentLength;
+  }
+
+  /** Returns the total content length of the messages currently kept by this list. */
+  public long getContentLength() {
+    return contentLength;
+  }
+
+  /**
+   * Adds a listener that will be notified with the messages evicted from this list, oldest first.
+   *
+   * @param listener the listener to add
+   * @return registration for removal of the listener
+   */
+  public Registration addEvictionListener(SerializableConsumer<List<T>> listener) {
+    Objects.requireNonNull(listener, "Listener cannot be null");
+    evictionListeners.add(listener);
+    return () -> evictionListeners.remove(listener);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public T get(int index) {
+    Objects.checkIndex(index, size);
+    return (T) elements[slot(index)];
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public boolean add(T message) {
+    Objects.requireNonNull(message, "Message cannot be null");
+    if (size == elements.length) {
+      if (size == maxMessages) {
+        evict(1);
+      } else {
+        grow();
+      }
+    }
+    int slot = slot(size);
+    elements[slot] = message;
+    lengths[slot] = lengthOf(message);
+    contentLength += lengths[slot];
+    size++;
+    modCount++;
+    evictExcessContent();
+    return true;
+  }
+
+  @Override
+  public T set(int index, T message) {
+    Objects.requireNonNull(message, "Message cannot be null");
+    T previous = get(index);
+    int slot = slot(index);
+    elements[slot] = message;
+    updateLength(slot, message);
+    evictExcessContent();
+    return previous;
+  }
+
+  @Override
+  public void clear() {
+    Arrays.fill(elements, null);
+    Arrays.fill(lengths, 0);
+    head = 0;
+    size = 0;
+    contentLength = 0;
+    modCount++;
+  }
+
+  /**
+   * Notifies the list that the content of a message has changed, evicting the oldest messages if
+   * the maximum content length is exceeded. The message is looked up from the most recent one.
+   *
+   * @param message the message whose content changed
+   * @return true if any message was evicted
+   */
+  public boolean contentUpdated(T message) {
+    int before = size;
+    for (int i = size - 1; i >= 0; i--) {
+      int slot = slot(i);
+      if (elements[slot] == message) {
+        updateLength(slot, message);
+        evictExcessContent();
+        break;
+      }
+    }
+    return size != before;
+  }
+
+  private void updateLength(int slot, T message) {
+    int length = lengthOf(message);
+    contentLength += length - lengths[slot];
+    lengths[slot] = length;
+  }
+
+  private void evictExcessContent() {
+    int count = 0;
+    long length = contentLength;
+    while (length > maxContentLength && count < size - 1) {
+      length -= lengths[slot(count++)];
+    }
+    if (count > 0) {
+      evict(count);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private void evict(int count) {
+    List<T> evicted = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      evicted.add((T) elements[head]);
+      contentLength -= lengths[head];
+      elements[head] = null;
+      lengths[head] = 0;
+      head = (head + 1) % elements.length;
+    }
+    size -= count;
+    modCount++;
+    List<T> unmodifiable = Collections.unmodifiableList(evicted);
+    new ArrayList<>(evictionListeners).forEach(listener -> listener.accept(unmodifiable));
+  }
+
+  private void grow() {
+    int capacity = (int) Math.min(maxMessages, elements.length * 2L);
+    Object[] newElements = new Object[capacity];
+    int[] newLengths = new int[capacity];
+    for (int i = 0; i < size; i++) {
+      newElements[i] = elements[slot(i)];
+      newLengths[i] = lengths[slot(i)];
+    }
+    elements = newElements;
+    lengths = newLengths;
+    head = 0;
+  }
+
+  private int slot(int index) {
+    int slot = head + index;
+    return slot < elements.length ? slot : slot - elements.length;
+  }
+
+  /** Writes only the messages kept by the list, oldest first, instead of the whole ring buffer. */
+  private void writeObject(ObjectOutputStream out) throws IOException {
+    out.defaultWriteObject();
+    out.writeInt(size);
+    for (int i = 0; i < size; i++) {
+      out.writeObject(elements[slot(i)]);
+    }
+  }
+
+  private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+    in.defaultReadObject();
+    size = in.readInt();
+    if (size < 0 || size > maxMessages) {
+      throw new IOException("Invalid size: " + size);
+    }
+    int capacity = Math.max(size, Math.min(maxMessages, INITIAL_CAPACITY));
+    elements = new Object[capacity];
+    lengths = new int[capacity];
+    for (int i = 0; i < size; i++) {
+      Message message = (Message) in.readObject();
+      elements[i] = message;
+      lengths[i] = lengthOf(message);
+      contentLength += lengths[i];
+    }
+  }
+
+  private static int lengthOf(Message message) {
+    return message.getContentLength();
+  }
+
+}
@@ -19,11 +19,16 @@
  */
 package com.flowingcode.vaadin.addons.chatassistant;
 
+import com.flowingcode.vaadin.addons.chatassistant.metrics.ChatAssistantMetrics;
 import com.flowingcode.vaadin.addons.chatassistant.model.Message;
+import com.flowingcode.vaadin.addons.chatassistant.model.Sender;
+import com.flowingcode.vaadin.addons.chatassistant.store.HistorySource;
+import com.flowingcode.vaadin.addons.chatassistant.store.MessageStore;
 import com.vaadin.flow.component.AttachEvent;
 import com.vaadin.flow.component.ClientCallable;
 import com.vaadin.flow.component.Component;
 import com.vaadin.flow.component.ComponentEventListener;
+import com.vaadin.flow.component.DetachEvent;
 import com.vaadin.flow.component.Tag;
 import com.vaadin.flow.component.avatar.Avatar;
 import com.vaadin.flow.component.button.Button;
@@ -43,26 +48,47 @@ import com.vaadin.flow.component.popover.Popover;
 import com.vaadin.flow.component.popover.PopoverPosition;
 import com.vaadin.flow.component.virtuallist.VirtualList;
 import com.vaadin.flow.data.provider.DataProvider;
+import com.vaadin.flow.data.provider.Query;
 import com.vaadin.flow.data.renderer.ComponentRenderer;
+import com.vaadin.flow.data.renderer.LitRenderer;
 import com.vaadin.flow.data.renderer.Renderer;
-import com.vaadin.flow.dom.Style;
+import com.vaadin.flow.function.SerializableConsumer;
 import com.vaadin.flow.function.SerializableSupplier;
 import com.vaadin.flow.shared.Registration;
 
 import java.io.Serializable;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Flow;
+import java.util.stream.Stream;
 
 /**
  * Component that allows to create a floating chat button that will open a chat window that can be
  * used to provide a chat assistant feature.
  *
+ * <p>The sizes of the floating button, its icon, the unread messages badge and the resizers of the
+ * chat window, as well as the minimum size of the chat window, can be customized through the CSS
+ * custom properties {@code --fc-chat-assistant-fab-size}, {@code --fc-chat-assistant-fab-icon-size},
+ * {@code --fc-chat-assistant-badge-size}, {@code --fc-chat-assistant-resizer-size},
+ * {@code --fc-chat-assistant-window-min-width} and {@code --fc-chat-assistant-window-min-height}.
+ *
  * @author mmlopez
  */
-@JsModule("./fc-chat-assistant-movement.js")
-@JsModule("./fc-chat-assistant-resize.js")
+@JsModule("./fc-chat-assistant.js")
+@JsModule("./fc-chat-message-time.js")
+@JsModule("@vaadin/message-list/src/vaadin-message.js")
+@CssImport("./styles/fc-chat-message-styles.css")
 @CssImport("./styles/fc-chat-assistant-style.css")
 @Tag("animated-fab")
 public class ChatAssistant<T extends Message> extends Div {
@@ -72,18 +98,21 @@ public class ChatAssistant<T extends Message> extends Div {
   protected final Button fab = new Button();
   protected final Div unreadBadge = new Div();
   protected final Div fabWrapper = new Div(fab, unreadBadge);
-  protected final Popover chatWindow = new Popover();
-  protected final Div overlay = new Div();
-  protected final VerticalLayout container = new VerticalLayout();
-
-  protected final Div resizerTop = new Div();
-  protected final Div resizerBottom = new Div();
-  protected final Div resizerTopRight = new Div();
-  protected final Div resizerBottomRight = new Div();
-  protected final Div resizerRight = new Div();
-  protected final Div resizerLeft = new Div();
-  protected final Div resizerBottomLeft = new Div();
-  protected final Div resizerTopLeft = new Div();
+
+  // The chat window components are created when the chat window is built: in the constructor, or
+  // when the window is first opened in lazy mode (until then, they are null).
+  protected Popover chatWindow;
+  protected Div overlay;
+  protected VerticalLayout container;
+
+  protected Div resizerTop;
+  protected Div resizerBottom;
+  protected Div resizerTopRight;
+  protected Div resizerBottomRight;
+  protected Div resizerRight;
+  protected Div resizerLeft;
+  protected Div resizerBottomLeft;
+  protected Div resizerTopLeft;
 
   protected static final int DEFAULT_FAB_SIZE = 60;
   protected static final int DEFAULT_FAB_ICON_SIZE = 40;
@@ -92,31 +121,76 @@ public class ChatAssistant<T extends Message> extends Div {
   protected static final int DEFAULT_MAX_RESIZER_SIZE = 200;
   protected static final int DEFAULT_DRAG_SENSITIVITY = 25;
 
-  private static final int DEFAULT_CONTENT_MIN_WIDTH = 150;
-  private static final int DEFAULT_CONTENT_MIN_HEIGHT = 150;
   private static final String DEFAULT_POPOVER_TAG = "fc-chat-assistant-popover";
   private static final String DEFAULT_FAB_CLASS = "fc-chat-assistant-fab";
+  private static final String DEFAULT_FAB_WRAPPER_CLASS = "fc-chat-assistant-fab-wrapper";
+  private static final String DEFAULT_FAB_ICON_CLASS = "fc-chat-assistant-fab-icon";
+  private static final String DEFAULT_WINDOW_CLASS = "fc-chat-assistant-window";
   private static final String DEFAULT_RESIZE_CLASS = "fc-chat-assistant-resize";
   private static final String DEFAULT_UNREAD_BADGE_CLASS = "fc-chat-assistant-unread-badge";
+  private static final int DEFAULT_REVERSE_PAGE_SIZE = 50;
 
   private Component headerComponent;
   private Component footerContainer;
-  private final VirtualList<T> content;
-  private final List<T> messages;
+  private VirtualList<T> content;
+  private final boolean lazyWindow;
+  private Renderer<T> messagesRenderer;
+  private int queuedMessages;
+  private Map<String, String> windowStyles;
+  private List<T> messages;
+  private final Map<T, ChatMessage<T>> renderedMessages = new HashMap<>();
   private MessageInput messageInput;
   private Span whoIsTyping;
   private Registration defaultSubmitListenerRegistration;
   private int unreadMessages = 0;
+  private final MessageIngestionQueue<T> ingestionQueue = new MessageIngestionQueue<>(this);
+  private transient Set<CompletableFuture<Void>> tokenStreams;
+  private MessageStore<T> messageStore;
+  private UpdateCoalescer<T> updateCoalescer;
+  private boolean incrementalMarkdown;
+  private int reversePageSize;
+  private ClientTimeFormat clientTimeFormat;
+  private boolean markdownEnabled;
+  private boolean lightweightRendering;
+  private final Map<Sender, Sender> senders = new HashMap<>();
+  private int contentCompressionThreshold;
+  private DataProvider<T, ?> dataProvider;
+  private ChatAssistantMetrics metrics = ChatAssistantMetrics.noOp();
+  private LatencyTrace latencyTrace;
 
+  /**
+   * Creates a ChatAssistant backed by the given list of messages. Use a {@link BoundedMessageList}
+   * to keep only the most recent messages in memory.
+   *
+   * @param messages the list of messages
+   * @param markdownEnabled flag to enable or disable markdown support
+   */
   public ChatAssistant(List<T> messages, boolean markdownEnabled) {
+    this(messages, markdownEnabled, false);
+  }
+
+  /**
+   * Creates a ChatAssistant backed by the given list of messages, optionally building the chat
+   * window lazily. In lazy mode, only the floating button and the unread messages badge are created
+   * until the chat window is first opened, or until a part of the chat window (such as its header,
+   * footer or message input) is configured. Until then, the chat window components (such as
+   * {@link #chatWindow}, {@link #overlay}, {@link #container} and the resizers) are null. Messages
+   * sent before the chat window is built are kept in the list and counted as unread messages.
+   *
+   * @param messages the list of messages
+   * @param markdownEnabled flag to enable or disable markdown support
+   * @param lazyWindow flag to build the chat window when it is first opened
+   */
+  public ChatAssistant(List<T> messages, boolean markdownEnabled, boolean lazyWindow) {
     this.setUI();
 
-    this.content = new VirtualList<>();
     this.messages = messages;
-    this.initializeHeader();
-    this.initializeFooter();
-    this.initializeContent(markdownEnabled);
-    this.initializeChatWindow();
+    this.messages.forEach(this::compact);
+    this.markdownEnabled = markdownEnabled;
+    this.lazyWindow = lazyWindow;
+    if (!lazyWindow) {
+      initializeWindow();
+    }
   }
 
   /**
@@ -138,71 +212,85 @@ public class ChatAssistant<T extends Message> extends Div {
   @Override
   protected void onAttach(AttachEvent attachEvent) {
     super.onAttach(attachEvent);
-    addComponentRefreshedListener(
-        "fc-chat-assistant-drag-listener",
-        "window.fcChatAssistantMovement($0, $1, $2, $3, $4, $5);",
-        this.getElement(), fabWrapper.getElement(), overlay, fab.getElement(), DEFAULT_FAB_MARGIN,
-        DEFAULT_DRAG_SENSITIVITY
+    anchorToEnd();
+    ingestionQueue.attach(attachEvent.getUI());
+  }
 
-    );
+  @Override
+  protected void onDetach(DetachEvent detachEvent) {
+    ingestionQueue.detach();
+    if (tokenStreams != null) {
+      new ArrayList<>(tokenStreams).forEach(stream -> stream.cancel(false));
+    }
+    flushPendingUpdates();
+    super.onDetach(detachEvent);
   }
 
   private void setUI() {
-    getStyle()
-        .setZIndex(1000);
-
-    overlay.getStyle()
-        .setMinHeight(DEFAULT_CONTENT_MIN_HEIGHT + "px")
-        .setMinWidth(DEFAULT_CONTENT_MIN_WIDTH + "px");
+    getElement()
+        .setProperty("fabMargin", DEFAULT_FAB_MARGIN)
+        .setProperty("dragSensitivity", DEFAULT_DRAG_SENSITIVITY)
+        .setProperty("maxResizerSize", DEFAULT_MAX_RESIZER_SIZE);
 
     fabIcon = new SvgIcon("/icons/chatbot.svg");
-    fabIcon.setSize(DEFAULT_FAB_ICON_SIZE + "px");
-
-    fab.getStyle()
-        .setBorderRadius("50%")
-        .setMinHeight(DEFAULT_FAB_SIZE + "px")
-        .setMinWidth(DEFAULT_FAB_SIZE + "px")
-        .setHeight(DEFAULT_FAB_SIZE + "px")
-        .setWidth(DEFAULT_FAB_SIZE + "px")
-        .setMaxHeight(DEFAULT_FAB_SIZE + "px")
-        .setMaxWidth(DEFAULT_FAB_SIZE + "px");
+    fabIcon.addClassName(DEFAULT_FAB_ICON_CLASS);
+
     fab.setIcon(fabIcon);
     fab.addClassName(DEFAULT_FAB_CLASS);
     fab.addThemeVariants(ButtonVariant.LUMO_PRIMARY);
 
-    fabWrapper.getStyle()
-        .setHeight(DEFAULT_FAB_SIZE + "px")
-        .setWidth(DEFAULT_FAB_SIZE + "px")
-        .setDisplay(Style.Display.INLINE_FLEX)
-        .setAlignItems(Style.AlignItems.CENTER)
-        .setJustifyContent(Style.JustifyContent.CENTER)
-        .setPosition(Style.Position.FIXED);
+    fabWrapper.addClassName(DEFAULT_FAB_WRAPPER_CLASS);
 
-    unreadBadge.setText(String.valueOf(unreadMessages));
     unreadBadge.addClassName(DEFAULT_UNREAD_BADGE_CLASS);
-    String fontSize = "var(--lumo-font-size-xs)";
-    unreadBadge.getStyle()
-        .setTextAlign(Style.TextAlign.CENTER)
-        .setPosition(Style.Position.ABSOLUTE)
-        .setJustifyContent(Style.JustifyContent.CENTER)
-        .setAlignItems(Style.AlignItems.CENTER)
-        .setDisplay(Style.Display.FLEX)
-        .setPadding("var(--lumo-space-xs)")
-        .setFontWeight(Style.FontWeight.BOLD)
-        .setFontSize(fontSize)
-        .setBorderRadius("50%")
-        .setBackgroundColor("var(--lumo-warning-color)")
-        .setScale("0")
-        .setMinHeight(fontSize)
-        .setMinWidth(fontSize)
-        .setHeight(fontSize)
-        .setWidth(fontSize)
-        .setMaxHeight(fontSize)
-        .setMaxWidth(fontSize)
-        .setTop("0")
-        .setRight("0")
-        .setColor("var(--lumo-warning-contrast-color)");
 
+    add(fabWrapper);
+  }
+
+  /** Builds the chat window, unless it was already built. */
+  private void initializeWindow() {
+    if (this.content != null) {
+      return;
+    }
+    this.content = new VirtualList<>();
+    this.chatWindow = new Popover();
+    this.overlay = new Div();
+    this.container = new VerticalLayout();
+    this.resizerTop = new Div();
+    this.resizerBottom = new Div();
+    this.resizerTopRight = new Div();
+    this.resizerBottomRight = new Div();
+    this.resizerRight = new Div();
+    this.resizerLeft = new Div();
+    this.resizerBottomLeft = new Div();
+    this.resizerTopLeft = new Div();
+    this.setWindowUI();
+    if (windowStyles != null) {
+      windowStyles.forEach(this::applyWindowStyle);
+      windowStyles = null;
+    }
+    this.initializeHeader();
+    this.initializeFooter();
+    this.initializeContent(markdownEnabled);
+    this.initializeChatWindow();
+    this.chatWindow.addOpenedChangeListener(ev -> {
+      if (ev.isOpened()) {
+        anchorToEnd();
+      }
+    });
+    if (messagesRenderer != null) {
+      this.content.setRenderer(messagesRenderer);
+    } else if (lightweightRendering) {
+      this.content.setRenderer(createLitRenderer());
+    }
+  }
+
+  /** Returns whether the chat window is built when it is first opened. */
+  public boolean isLazyWindow() {
+    return lazyWindow;
+  }
+
+  private void setWindowUI() {
+    overlay.addClassName(DEFAULT_WINDOW_CLASS);
     chatWindow.add(overlay);
     chatWindow.setPosition(PopoverPosition.TOP);
     chatWindow.addClassName(DEFAULT_POPOVER_TAG);
@@ -210,60 +298,13 @@ public class ChatAssistant<T extends Message> extends Div {
     chatWindow.setTarget(fab);
 
     applyGenericResizerStyle(resizerTop, "top");
-    resizerTop.getStyle()
-        .setTop("0")
-        .setLeft("0")
-        .setHeight(DEFAULT_RESIZER_SIZE + "px")
-        .setWidth("100%");
-
     applyGenericResizerStyle(resizerBottom, "bottom");
-    resizerBottom.getStyle()
-        .setBottom("0")
-        .setLeft("0")
-        .setHeight(DEFAULT_RESIZER_SIZE + "px")
-        .setWidth("100%");
-
     applyGenericResizerStyle(resizerTopRight, "top-right");
-    resizerTopRight.getStyle()
-        .setRight("0")
-        .setTop("0")
-        .setHeight(DEFAULT_RESIZER_SIZE + "px")
-        .setWidth(DEFAULT_RESIZER_SIZE + "px");
-
     applyGenericResizerStyle(resizerBottomRight, "bottom-right");
-    resizerBottomRight.getStyle()
-        .setBottom("0")
-        .setRight("0")
-        .setHeight(DEFAULT_RESIZER_SIZE + "px")
-        .setWidth(DEFAULT_RESIZER_SIZE + "px");
-
     applyGenericResizerStyle(resizerRight, "right");
-    resizerRight.getStyle()
-        .setTop("0")
-        .setRight("0")
-        .setHeight("100%")
-        .setWidth(DEFAULT_RESIZER_SIZE + "px");
-
     applyGenericResizerStyle(resizerLeft, "left");
-    resizerLeft.getStyle()
-        .setTop("0")
-        .setLeft("0")
-        .setHeight("100%")
-        .setWidth(DEFAULT_RESIZER_SIZE + "px");
-
     applyGenericResizerStyle(resizerBottomLeft, "bottom-left");
-    resizerBottomLeft.getStyle()
-        .setBottom("0")
-        .setLeft("0")
-        .setHeight(DEFAULT_RESIZER_SIZE + "px")
-        .setWidth(DEFAULT_RESIZER_SIZE + "px");
-
     applyGenericResizerStyle(resizerTopLeft, "top-left");
-    resizerTopLeft.getStyle()
-        .setTop("0")
-        .setLeft("0")
-        .setHeight(DEFAULT_RESIZER_SIZE + "px")
-        .setWidth(DEFAULT_RESIZER_SIZE + "px");
 
     overlay.add(
         resizerTop, resizerBottom,
@@ -271,7 +312,7 @@ public class ChatAssistant<T extends Message> extends Div {
         resizerLeft, resizerTopLeft, resizerBottomLeft,
         container
     );
-    add(chatWindow, fabWrapper);
+    addComponentAsFirst(chatWindow);
   }
 
   /** Receives click events from the client side to toggle the chat window's opened state. */
@@ -285,13 +326,12 @@ public class ChatAssistant<T extends Message> extends Div {
     }
   }
 
-  /** Applies common styles to the resizer elements based on the specified direction. */
+  /**
+   * Applies common styles to the resizer elements based on the specified direction. The styles are
+   * defined in the stylesheet, by the class names of the resizer.
+   */
   protected void applyGenericResizerStyle(Div resizer, String direction) {
-    resizer.getStyle()
-        .setPosition(Style.Position.ABSOLUTE)
-        .setDisplay(Style.Display.INLINE_BLOCK)
-        .setZIndex(1001);
-    resizer.addClassName(DEFAULT_RESIZE_CLASS + "-" + direction);
+    resizer.addClassNames(DEFAULT_RESIZE_CLASS, DEFAULT_RESIZE_CLASS + "-" + direction);
   }
 
 
@@ -351,47 +391,102 @@ public class ChatAssistant<T extends Message> extends Div {
 
   /** Opens the chat window. */
   public void open() {
+    initializeWindow();
     chatWindow.open();
+    if (queuedMessages > 0) {
+      setUnreadMessages(unreadMessages - queuedMessages);
+      queuedMessages = 0;
+    }
   }
 
   /** Closes the chat window. */
   public void close() {
-    chatWindow.close();
+    if (chatWindow != null) {
+      chatWindow.close();
+    }
   }
 
   /** Returns true if the chat window is opened, false otherwise. */
   public boolean isOpened() {
-    return chatWindow.isOpened();
+    return chatWindow != null && chatWindow.isOpened();
   }
 
   /** Sets the chat window minimum width. Applies when resizing. **/
   public void setWindowMinWidth(String minWidth) {
-    this.overlay.setMinWidth(minWidth);
+    setWindowStyle("min-width", minWidth);
   }
 
   /** Sets the chat window minimum height. Applies when resizing. **/
   public void setWindowMinHeight(String minHeight) {
-    this.overlay.setMinHeight(minHeight);
+    setWindowStyle("min-height", minHeight);
   }
 
   /** Sets the chat window maximum width. Applies when resizing. **/
   public void setWindowMaxWidth(String maxWidth) {
-    this.overlay.setMaxWidth(maxWidth);
+    setWindowStyle("max-width", maxWidth);
   }
 
   /** Sets the chat window maximum height. Applies when resizing. **/
   public void setWindowMaxHeight(String maxHeight) {
-    this.overlay.setMaxHeight(maxHeight);
+    setWindowStyle("max-height", maxHeight);
   }
 
   /** Sets the chat window default height. Applies when resizing. **/
   public void setWindowHeight(String height) {
-    this.overlay.setHeight(height);
+    setWindowStyle("height", height);
   }
 
   /** Sets the chat window default width. Applies when resizing. **/
   public void setWindowWidth(String width) {
-    this.overlay.setWidth(width);
+    setWindowStyle("width", width);
+  }
+
+  /** Sets a size of the chat window, or keeps it until the chat window is built. */
+  private void setWindowStyle(String name, String value) {
+    if (overlay != null) {
+      applyWindowStyle(name, value);
+    } else {
+      if (windowStyles == null) {
+        windowStyles = new LinkedHashMap<>();
+      }
+      windowStyles.put(name, value);
+    }
+  }
+
+  private void applyWindowStyle(String name, String value) {
+    switch (name) {
+      case "min-width" -> overlay.setMinWidth(value);
+      case "min-height" -> overlay.setMinHeight(value);
+      case "max-width" -> overlay.setMaxWidth(value);
+      case "max-height" -> overlay.setMaxHeight(value);
+      case "height" -> overlay.setHeight(value);
+      default -> overlay.setWidth(value);
+    }
+  }
+
+  /**
+   * Receives the size of the chat window from the client side when the user finishes resizing it,
+   * so that it is kept when the window is rendered again.
+   *
+   * @param width the width of the window in pixels, or null if it was not resized horizontally
+   * @param height the height of the window in pixels, or null if it was not resized vertically
+   */
+  @ClientCallable
+  private void onWindowResized(Double width, Double height) {
+    if (isValidSize(width)) {
+      setWindowWidth(toPixels(width));
+    }
+    if (isValidSize(height)) {
+      setWindowHeight(toPixels(height));
+    }
+  }
+
+  private static boolean isValidSize(Double size) {
+    return size != null && Double.isFinite(size) && size >= 0;
+  }
+
+  private static String toPixels(double size) {
+    return (size == Math.rint(size) ? Long.toString((long) size) : Double.toString(size)) + "px";
   }
 
   protected void initializeHeader() {
@@ -424,16 +519,11 @@ public class ChatAssistant<T extends Message> extends Div {
     this.footerContainer = footer;
   }
 
-  @SuppressWarnings("unchecked")
   protected void initializeContent(boolean markdownEnabled) {
-    this.content.setRenderer(new ComponentRenderer<>(
-        message -> new ChatMessage<>(message, markdownEnabled),
-        (component, message) -> {
-          ((ChatMessage<T>) component).setMessage(message);
-          return component;
-        })
-    );
-    this.content.setItems(this.messages);
+    this.markdownEnabled = markdownEnabled;
+    this.content.setRenderer(createComponentRenderer());
+    setContentDataProvider(
+        dataProvider != null ? dataProvider : DataProvider.ofCollection(this.messages));
     this.content.setSizeFull();
     this.container.add(this.headerComponent, this.content, this.footerContainer);
     this.container.setPadding(true);
@@ -447,63 +537,161 @@ public class ChatAssistant<T extends Message> extends Div {
   protected void initializeChatWindow() {
     this.chatWindow.setOpenOnClick(false);
     this.chatWindow.setCloseOnOutsideClick(false);
-    this.chatWindow.addOpenedChangeListener(ev -> {
-      if (ev.isOpened()) {
-        addComponentRefreshedListener(
-            "fc-chat-assistant-resize-top-listener",
-            "window.fcChatAssistantResize($0, $1, $2, $3, $4, 'top');",
-            resizerTop.getElement(), overlay,
-            DEFAULT_POPOVER_TAG, DEFAULT_RESIZER_SIZE, DEFAULT_MAX_RESIZER_SIZE
-
-        );
-        addComponentRefreshedListener(
-            "fc-chat-assistant-resize-bottom-right-listener",
-            "window.fcChatAssistantResize($0, $1, $2, $3, $4, 'bottom-right');",
-            resizerBottomRight.getElement(), overlay,
-            DEFAULT_POPOVER_TAG, DEFAULT_RESIZER_SIZE, DEFAULT_MAX_RESIZER_SIZE
-        );
-        addComponentRefreshedListener(
-            "fc-chat-assistant-resize-top-right-listener",
-            "window.fcChatAssistantResize($0, $1, $2, $3, $4, 'top-right');",
-            resizerTopRight.getElement(), overlay,
-            DEFAULT_POPOVER_TAG, DEFAULT_RESIZER_SIZE, DEFAULT_MAX_RESIZER_SIZE
-        );
-        addComponentRefreshedListener(
-            "fc-chat-assistant-resize-right-listener",
-            "window.fcChatAssistantResize($0, $1, $2, $3, $4, 'right');",
-            resizerRight.getElement(), overlay,
-            DEFAULT_POPOVER_TAG, DEFAULT_RESIZER_SIZE, DEFAULT_MAX_RESIZER_SIZE
-        );
-        addComponentRefreshedListener(
-            "fc-chat-assistant-resize-bottom-listener",
-            "window.fcChatAssistantResize($0, $1, $2, $3, $4, 'bottom');",
-            resizerBottom.getElement(), overlay,
-            DEFAULT_POPOVER_TAG, DEFAULT_RESIZER_SIZE, DEFAULT_MAX_RESIZER_SIZE
-        );
-        addComponentRefreshedListener(
-            "fc-chat-assistant-resize-left-listener",
-            "window.fcChatAssistantResize($0, $1, $2, $3, $4, 'left');",
-            resizerLeft.getElement(), overlay,
-            DEFAULT_POPOVER_TAG, DEFAULT_RESIZER_SIZE, DEFAULT_MAX_RESIZER_SIZE
-        );
-        addComponentRefreshedListener(
-            "fc-chat-assistant-resize-top-left-listener",
-            "window.fcChatAssistantResize($0, $1, $2, $3, $4, 'top-left');",
-            resizerTopLeft.getElement(), overlay,
-            DEFAULT_POPOVER_TAG, DEFAULT_RESIZER_SIZE, DEFAULT_MAX_RESIZER_SIZE
-        );
-        addComponentRefreshedListener(
-            "fc-chat-assistant-resize-bottom-left-listener",
-            "window.fcChatAssistantResize($0, $1, $2, $3, $4, 'bottom-left');",
-            resizerBottomLeft.getElement(), overlay,
-            DEFAULT_POPOVER_TAG, DEFAULT_RESIZER_SIZE, DEFAULT_MAX_RESIZER_SIZE
-        );
-      }
-    });
   }
 
   public void setDataProvider(DataProvider<T, ?> dataProvider) {
-    this.content.setDataProvider(dataProvider);
+    this.messageStore = null;
+    setContentDataProvider(dataProvider);
+    anchorToEnd();
+  }
+
+  /**
+   * Keeps the history of the conversation out of the serialized session. Only the conversation key
+   * and the source are serialized, so that the cost of session replication and passivation does not
+   * depend on the length of the conversation. The messages are loaded from the source when they are
+   * first needed, and loaded again after the session is deserialized. The messages currently held by
+   * this component are replaced with those of the conversation.
+   *
+   * <p>Messages sent through this component are kept in memory while the session is alive, but the
+   * application is responsible for persisting them, so that they are returned by the source.
+   *
+   * @param conversationKey the key of the conversation
+   * @param source the source the messages of the conversation are loaded from
+   */
+  public void setDetachedHistory(String conversationKey, HistorySource<T> source) {
+    this.messages = new DetachedHistory<>(conversationKey, source, this::compact);
+    this.messageStore = null;
+    setContentDataProvider(DataProvider.ofCollection(this.messages));
+    anchorToEnd();
+  }
+
+  /**
+   * Returns the key of the conversation whose history is kept out of the serialized session.
+   *
+   * @return the conversation key, or null if the history is kept in the session
+   * @see #setDetachedHistory(String, HistorySource)
+   */
+  public String getConversationKey() {
+    return messages instanceof DetachedHistory<T> history ? history.getConversationKey() : null;
+  }
+
+  /**
+   * Sets the store the messages are read from. Messages are fetched from the store a page at a
+   * time, and messages sent or updated through this component are written to the store.
+   *
+   * @param messageStore the message store
+   */
+  public void setMessageStore(MessageStore<T> messageStore) {
+    Objects.requireNonNull(messageStore, "Message store cannot be null");
+    setContentDataProvider(DataProvider.fromCallbacks(
+        query -> messageStore.fetch(query.getOffset(), query.getLimit()),
+        query -> messageStore.size()));
+    this.messageStore = messageStore;
+    anchorToEnd();
+  }
+
+  /** Sets the data provider of the list, wrapping it when metrics are reported. */
+  private void setContentDataProvider(DataProvider<T, ?> dataProvider) {
+    this.dataProvider = dataProvider;
+    if (this.content == null) {
+      return;
+    }
+    if (metrics != ChatAssistantMetrics.noOp()) {
+      this.content.setDataProvider(new MeteredDataProvider<>(dataProvider, this::getMetrics));
+    } else {
+      this.content.setDataProvider(dataProvider);
+    }
+  }
+
+  /**
+   * Sets the listener that is notified of the work done by this component, for reporting it to a
+   * monitoring system. The data provider is wrapped for measuring the queries while metrics are
+   * set, so that the list of messages is reset when metrics are set or cleared.
+   *
+   * @param metrics the metrics listener, or null for reporting nothing
+   */
+  public void setMetrics(ChatAssistantMetrics metrics) {
+    metrics = Objects.requireNonNullElse(metrics, ChatAssistantMetrics.noOp());
+    boolean wrapped = this.metrics != ChatAssistantMetrics.noOp();
+    this.metrics = metrics;
+    if (wrapped != (metrics != ChatAssistantMetrics.noOp())) {
+      setContentDataProvider(dataProvider);
+      anchorToEnd();
+    }
+  }
+
+  /** Returns the listener that is notified of the work done by this component. */
+  public ChatAssistantMetrics getMetrics() {
+    return metrics;
+  }
+
+  /** Refreshes the whole list of messages. */
+  private void refreshAll() {
+    if (this.content == null) {
+      return;
+    }
+    metrics.refreshed(true);
+    this.content.getDataProvider().refreshAll();
+  }
+
+  /** Refreshes a single message. */
+  private void refreshItem(T message) {
+    if (this.content == null) {
+      return;
+    }
+    metrics.refreshed(false);
+    this.content.getDataProvider().refreshItem(message);
+  }
+
+  /**
+   * Sets whether the messages are lazily loaded from the end of the conversation. When enabled, the
+   * page with the newest messages is sent together with the size of the list, so that the chat
+   * window opens at the newest message without fetching the first page and then the last one.
+   * Older pages are fetched when the user scrolls up.
+   *
+   * @param reverseLazyLoading true to load the newest messages first
+   */
+  public void setReverseLazyLoading(boolean reverseLazyLoading) {
+    setReverseLazyLoading(reverseLazyLoading ? DEFAULT_REVERSE_PAGE_SIZE : 0);
+  }
+
+  /**
+   * Enables loading the messages from the end of the conversation, fetching the given number of
+   * messages first.
+   *
+   * @param pageSize the number of messages fetched first, or 0 to disable reverse lazy loading
+   * @see #setReverseLazyLoading(boolean)
+   */
+  public void setReverseLazyLoading(int pageSize) {
+    if (pageSize < 0) {
+      throw new IllegalArgumentException("Page size cannot be negative");
+    }
+    this.reversePageSize = pageSize;
+    anchorToEnd();
+  }
+
+  /** Returns whether the messages are lazily loaded from the end of the conversation. */
+  public boolean isReverseLazyLoading() {
+    return reversePageSize > 0;
+  }
+
+  /** Requests the page with the newest messages and scrolls to it, in the same round trip. */
+  private void anchorToEnd() {
+    if (reversePageSize > 0 && isAttached() && this.content != null) {
+      int size = countItems(new Query<>());
+      this.content.getDataCommunicator()
+          .setRequestedRange(Math.max(0, size - reversePageSize), reversePageSize);
+      this.content.scrollToEnd();
+    }
+  }
+
+  /**
+   * Returns the store the messages are read from.
+   *
+   * @return the message store, or null if none was set
+   */
+  public MessageStore<T> getMessageStore() {
+    return messageStore;
   }
 
   /**
@@ -512,6 +700,7 @@ public class ChatAssistant<T extends Message> extends Div {
    * @param whoIsTyping string to be shown as an indication of someone typing
    */
   public void setWhoIsTyping(String whoIsTyping) {
+    initializeWindow();
     this.whoIsTyping.setText(whoIsTyping);
     this.whoIsTyping.setVisible(true);
   }
@@ -522,15 +711,17 @@ public class ChatAssistant<T extends Message> extends Div {
    * @return the current text or null if not configured
    */
   public String getWhoIsTyping() {
-    return whoIsTyping.getText();
+    return whoIsTyping != null ? whoIsTyping.getText() : null;
   }
 
   /**
    * Clears the text shown over the message input to indicate that someone is typing.
    */
   public void clearWhoIsTyping() {
-    this.whoIsTyping.setText(null);
-    this.whoIsTyping.setVisible(false);
+    if (this.whoIsTyping != null) {
+      this.whoIsTyping.setText(null);
+      this.whoIsTyping.setVisible(false);
+    }
   }
 
   /**
@@ -540,6 +731,7 @@ public class ChatAssistant<T extends Message> extends Div {
    * @return registration for removal of the listener
    */
   public Registration setSubmitListener(ComponentEventListener<MessageInput.SubmitEvent> listener) {
+    initializeWindow();
     if(this.defaultSubmitListenerRegistration != null) {
       this.defaultSubmitListenerRegistration.remove();
     }
@@ -547,11 +739,24 @@ public class ChatAssistant<T extends Message> extends Div {
     return this.defaultSubmitListenerRegistration;
   }
 
-  private void refreshContent() {
-    this.content.getDataProvider().refreshAll();
+  /**
+   * Notifies the list that items were appended at the end. Unlike refreshing the whole data
+   * provider, this keeps the rows that were already rendered, so that only the size change and the
+   * new rows are sent to the client.
+   */
+  private void refreshAppendedItems() {
+    if (this.content == null) {
+      return;
+    }
+    this.content.getDataCommunicator().setCountCallback(this::countItems);
     this.content.scrollToEnd();
   }
 
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private int countItems(Query<T, ?> query) {
+    return ((DataProvider) this.content.getDataProvider()).size(query);
+  }
+
   /**
    * Sends a message programmatically to the component. Should not be used when a custom
    * DataProvider is used. Instead, just refresh the custom DataProvider.
@@ -559,8 +764,29 @@ public class ChatAssistant<T extends Message> extends Div {
    * @param message the message to be sent programmatically
    */
   public void sendMessage(T message) {
+    metrics.messageSent();
+    if (latencyTrace != null && message.getId() != null) {
+      latencyTrace.messageSent(message.getId(), System.currentTimeMillis());
+    }
+    compact(message);
+    if (this.content == null) {
+      queuedMessages++;
+      setUnreadMessages(unreadMessages + 1);
+    }
+    if (messageStore != null) {
+      messageStore.append(message);
+      refreshAppendedItems();
+      return;
+    }
+    int size = this.messages.size();
     this.messages.add(message);
-    refreshContent();
+    if (this.messages.size() > size) {
+      refreshAppendedItems();
+    } else {
+      // older messages were evicted from a bounded list
+      refreshAll();
+      scrollToEnd();
+    }
   }
 
   /**
@@ -569,7 +795,299 @@ public class ChatAssistant<T extends Message> extends Div {
    * @param message the message to be updated
    */
   public void updateMessage(T message) {
-    this.content.getDataProvider().refreshItem(message);
+    metrics.messageUpdated();
+    compact(message);
+    if (evictExcessContent(message)) {
+      return;
+    }
+    if (updateCoalescer != null) {
+      updateCoalescer.update(message);
+    } else {
+      refreshMessage(message);
+    }
+  }
+
+  /**
+   * Appends a fragment to the content of a previously entered message. When the message is being
+   * displayed by the default renderer, only the fragment is sent to the client, which makes this
+   * method preferable over {@link #updateMessage(Message)} for streaming generated answers token by
+   * token. Otherwise, it behaves as {@link #updateMessage(Message)}.
+   *
+   * @param message the message to be updated
+   * @param delta the text to be appended to the message content
+   */
+  public void appendToMessage(T message, String delta) {
+    Objects.requireNonNull(delta, "Delta cannot be null");
+    metrics.messageUpdated();
+    message.setContent(Objects.requireNonNullElse(message.getContent(), "") + delta);
+    if (evictExcessContent(message)) {
+      return;
+    }
+    if (updateCoalescer != null) {
+      updateCoalescer.append(message, delta.length());
+    } else {
+      refreshAppendedContent(message);
+    }
+  }
+
+  /**
+   * Evicts the oldest messages if the content of the given message made a bounded list exceed its
+   * maximum content length, refreshing the whole list in that case.
+   */
+  private boolean evictExcessContent(T message) {
+    if (this.messages instanceof BoundedMessageList<T> boundedMessages
+        && boundedMessages.contentUpdated(message)) {
+      refreshAll();
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Sets the minimum content length of the messages whose content is compressed when they are sent
+   * or updated, as long as they are not loading. Content appended with
+   * {@link #appendToMessage(Message, String)} is not compressed until the message is updated.
+   *
+   * @param contentCompressionThreshold the minimum content length, or 0 to disable compression
+   * @see Message#compressContent(int)
+   */
+  public void setContentCompressionThreshold(int contentCompressionThreshold) {
+    if (contentCompressionThreshold < 0) {
+      throw new IllegalArgumentException("Content compression threshold cannot be negative");
+    }
+    this.contentCompressionThreshold = contentCompressionThreshold;
+  }
+
+  /** Returns the minimum content length of the messages whose content is compressed. */
+  public int getContentCompressionThreshold() {
+    return contentCompressionThreshold;
+  }
+
+  /**
+   * Interns the sender of the message into the table of senders of this conversation, and
+   * compresses the content of the message if required.
+   */
+  private void compact(T message) {
+    Sender sender = message.getSender();
+    if (sender != null) {
+      message.setSender(senders.computeIfAbsent(sender, s -> s));
+    }
+    if (contentCompressionThreshold > 0) {
+      message.compressContent(contentCompressionThreshold);
+    }
+  }
+
+  /**
+   * Sends a message from any thread. The message is queued, and it is sent while holding the UI
+   * lock together with any other message operation queued in the meantime. Messages queued while
+   * the component is detached are sent when it is attached.
+   *
+   * @param message the message to be sent
+   * @see #sendMessage(Message)
+   */
+  public void sendMessageAsync(T message) {
+    Objects.requireNonNull(message, "Message cannot be null");
+    ingestionQueue.enqueue(chatAssistant -> chatAssistant.sendMessage(message));
+  }
+
+  /**
+   * Updates a previously entered message from any thread. The update is queued as in
+   * {@link #sendMessageAsync(Message)}.
+   *
+   * @param message the message to be updated
+   * @see #updateMessage(Message)
+   */
+  public void updateMessageAsync(T message) {
+    Objects.requireNonNull(message, "Message cannot be null");
+    ingestionQueue.enqueue(chatAssistant -> chatAssistant.updateMessage(message));
+  }
+
+  /**
+   * Appends a fragment to the content of a previously entered message from any thread. The content
+   * of the message is modified when the queued operation is applied, while holding the UI lock.
+   *
+   * @param message the message to be updated
+   * @param delta the text to be appended to the message content
+   * @see #appendToMessage(Message, String)
+   */
+  public void appendToMessageAsync(T message, String delta) {
+    Objects.requireNonNull(message, "Message cannot be null");
+    Objects.requireNonNull(delta, "Delta cannot be null");
+    ingestionQueue.enqueue(chatAssistant -> chatAssistant.appendToMessage(message, delta));
+  }
+
+  void enqueue(SerializableConsumer<ChatAssistant<T>> operation) {
+    ingestionQueue.enqueue(operation);
+  }
+
+  /**
+   * Streams the tokens emitted by a publisher into a previously entered message, usually a loading
+   * one. The publisher is subscribed to from a virtual thread when the runtime supports them, and
+   * it is requested more tokens only as the previous ones are applied. The message stops loading
+   * when the first token is received, or when the stream ends.
+   *
+   * <p>The returned future completes after the last token is applied to the message, or
+   * exceptionally if the publisher signals an error. Cancelling the future, or detaching this
+   * component, cancels the subscription.
+   *
+   * @param message the message to be updated
+   * @param tokens the publisher of the tokens to be appended to the message content
+   * @return a future that completes when the stream ends
+   */
+  public CompletableFuture<Void> streamToMessage(T message, Flow.Publisher<String> tokens) {
+    Objects.requireNonNull(tokens, "Tokens cannot be null");
+    TokenStreamBridge<T> bridge = createTokenStream(message);
+    bridge.consume(tokens);
+    return bridge.getCompletion();
+  }
+
+  /**
+   * Streams the tokens returned by an iterator into a previously entered message. The iterator is
+   * consumed from a virtual thread when the runtime supports them, and it is advanced only while
+   * few tokens are pending to be applied. Cancelling the returned future, or detaching this
+   * component, interrupts the thread that consumes the iterator.
+   *
+   * @param message the message to be updated
+   * @param tokens the iterator of the tokens to be appended to the message content
+   * @return a future that completes when the iterator is exhausted
+   * @see #streamToMessage(Message, Flow.Publisher)
+   */
+  public CompletableFuture<Void> streamToMessage(T message, Iterator<String> tokens) {
+    Objects.requireNonNull(tokens, "Tokens cannot be null");
+    TokenStreamBridge<T> bridge = createTokenStream(message);
+    bridge.consume(tokens);
+    return bridge.getCompletion();
+  }
+
+  /**
+   * Streams the tokens of a stream into a previously entered message. The stream is consumed as
+   * in {@link #streamToMessage(Message, Iterator)}, and closed when it ends or is cancelled.
+   *
+   * @param message the message to be updated
+   * @param tokens the stream of the tokens to be appended to the message content
+   * @return a future that completes when the stream ends
+   * @see #streamToMessage(Message, Flow.Publisher)
+   */
+  public CompletableFuture<Void> streamToMessage(T message, Stream<String> tokens) {
+    Objects.requireNonNull(tokens, "Tokens cannot be null");
+    TokenStreamBridge<T> bridge = createTokenStream(message);
+    bridge.consume(tokens);
+    return bridge.getCompletion();
+  }
+
+  private TokenStreamBridge<T> createTokenStream(T message) {
+    Objects.requireNonNull(message, "Message cannot be null");
+    if (tokenStreams == null) {
+      tokenStreams = ConcurrentHashMap.newKeySet();
+    }
+    TokenStreamBridge<T> bridge = new TokenStreamBridge<>(this, message);
+    CompletableFuture<Void> completion = bridge.getCompletion();
+    tokenStreams.add(completion);
+    completion.whenComplete((result, error) -> tokenStreams.remove(completion));
+    return bridge;
+  }
+
+  void refreshMessage(T message) {
+    if (messageStore != null) {
+      messageStore.update(message);
+    }
+    refreshItem(message);
+  }
+
+  void refreshAppendedContent(T message) {
+    if (messageStore != null) {
+      messageStore.update(message);
+    }
+    ChatMessage<T> chatMessage = renderedMessages.get(message);
+    if (chatMessage != null && chatMessage.getMessage() == message) {
+      long pushed = chatMessage.getPushedLength();
+      chatMessage.appendContent();
+      reportPushedContent(chatMessage, pushed);
+    } else {
+      refreshItem(message);
+    }
+  }
+
+  /**
+   * Sets whether markdown is rendered incrementally while the content of a message grows. In
+   * incremental mode, the completed blocks of a message are displayed separately and only the
+   * trailing open block is rendered again when content is appended to the message. It only applies
+   * when markdown support is enabled and messages are displayed by the default renderer.
+   *
+   * @param incrementalMarkdown true to render markdown incrementally
+   */
+  public void setIncrementalMarkdown(boolean incrementalMarkdown) {
+    if (this.incrementalMarkdown != incrementalMarkdown) {
+      this.incrementalMarkdown = incrementalMarkdown;
+      refreshAll();
+    }
+  }
+
+  /**
+   * Sets the format used for displaying message times in the browser. When a format is set,
+   * message times are sent to the client as epoch milliseconds, and formatted by the client in the
+   * time zone of the browser. It only applies when messages are displayed by the default renderer.
+   *
+   * @param clientTimeFormat the format, or null for formatting message times in the server
+   */
+  public void setClientTimeFormat(ClientTimeFormat clientTimeFormat) {
+    if (!Objects.equals(this.clientTimeFormat, clientTimeFormat)) {
+      this.clientTimeFormat = clientTimeFormat;
+      renderedMessages.values()
+          .forEach(chatMessage -> chatMessage.setClientTimeFormat(clientTimeFormat));
+      if (lightweightRendering) {
+        refreshAll();
+      }
+    }
+  }
+
+  /** Returns the format used for displaying message times in the browser, if any. */
+  public ClientTimeFormat getClientTimeFormat() {
+    return clientTimeFormat;
+  }
+
+  /** Returns whether markdown is rendered incrementally while the content of a message grows. */
+  public boolean isIncrementalMarkdown() {
+    return incrementalMarkdown;
+  }
+
+  /**
+   * Enables coalescing of message updates. When enabled, updates and fragments appended to
+   * messages are buffered and sent to the client at most once per interval, or as soon as the
+   * buffered fragments reach the given number of characters. Intermediate states of the same
+   * message are merged, which reduces the number of round trips when streaming generated answers.
+   *
+   * @param interval the maximum time an update is buffered
+   * @param maxChars the number of buffered characters that triggers a flush, or 0 for no limit
+   */
+  public void setUpdateCoalescing(Duration interval, int maxChars) {
+    Objects.requireNonNull(interval, "Interval cannot be null");
+    if (interval.isNegative() || interval.isZero()) {
+      throw new IllegalArgumentException("Interval must be greater than 0");
+    }
+    if (maxChars < 0) {
+      throw new IllegalArgumentException("Max chars cannot be negative");
+    }
+    flushPendingUpdates();
+    this.updateCoalescer = new UpdateCoalescer<>(this, interval, maxChars);
+  }
+
+  /** Disables coalescing of message updates, flushing any pending update. */
+  public void disableUpdateCoalescing() {
+    flushPendingUpdates();
+    this.updateCoalescer = null;
+  }
+
+  /** Returns whether message updates are coalesced. */
+  public boolean isUpdateCoalescingEnabled() {
+    return updateCoalescer != null;
+  }
+
+  /** Sends to the client any message update buffered because of update coalescing. */
+  public void flushPendingUpdates() {
+    if (updateCoalescer != null) {
+      updateCoalescer.flush();
+    }
   }
 
   /**
@@ -604,6 +1122,7 @@ public class ChatAssistant<T extends Message> extends Div {
    * @param component to be used as a replacement for the header
    */
   public void setHeaderComponent(Component component) {
+    initializeWindow();
     if (this.headerComponent != null) {
       this.container.remove(this.headerComponent);
     }
@@ -615,6 +1134,7 @@ public class ChatAssistant<T extends Message> extends Div {
 
   /** Returns the current component configured as the header of the chat window. */
   public Component getHeaderComponent() {
+    initializeWindow();
     return this.headerComponent;
   }
 
@@ -625,6 +1145,7 @@ public class ChatAssistant<T extends Message> extends Div {
    */
   public void setFooterComponent(Component component) {
     Objects.requireNonNull(component, "Component cannot not be null");
+    initializeWindow();
     this.container.remove(this.footerContainer);
     this.footerContainer = component;
     this.container.add(this.footerContainer);
@@ -636,6 +1157,7 @@ public class ChatAssistant<T extends Message> extends Div {
    * @return component used as the footer of the chat window
    */
   public Component getFooterComponent() {
+    initializeWindow();
     return this.footerContainer;
   }
 
@@ -650,21 +1172,197 @@ public class ChatAssistant<T extends Message> extends Div {
    *            zero based index of the item to scroll to in the current view.
    */
   public void scrollToIndex(int position) {
-    this.content.scrollToIndex(position);
+    if (this.content != null) {
+      this.content.scrollToIndex(position);
+    }
   }
 
   /**
    * Scrolls to the first element.
    */
   public void scrollToStart() {
-    this.content.scrollToStart();
+    if (this.content != null) {
+      this.content.scrollToStart();
+    }
   }
 
   /**
    * Scrolls to the last element of the list.
    */
   public void scrollToEnd() {
-    this.content.scrollToEnd();
+    if (this.content != null) {
+      this.content.scrollToEnd();
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private ComponentRenderer<ChatMessage<T>, T> createComponentRenderer() {
+    return new ComponentRenderer<>(
+        message -> {
+          ChatMessage<T> chatMessage =
+              new ChatMessage<>(message, markdownEnabled, incrementalMarkdown, clientTimeFormat);
+          reportPushedContent(chatMessage, 0);
+          chatMessage.addDetachListener(
+              ev -> renderedMessages.remove(chatMessage.getMessage(), chatMessage));
+          renderedMessages.put(message, chatMessage);
+          return chatMessage;
+        },
+        (component, message) -> {
+          ChatMessage<T> chatMessage = (ChatMessage<T>) component;
+          renderedMessages.remove(chatMessage.getMessage(), chatMessage);
+          chatMessage.setClientTimeFormat(clientTimeFormat);
+          long pushed = chatMessage.getPushedLength();
+          chatMessage.setMessage(message);
+          reportPushedContent(chatMessage, pushed);
+          renderedMessages.put(message, chatMessage);
+          return component;
+        });
+  }
+
+  private void reportPushedContent(ChatMessage<T> chatMessage, long pushedBefore) {
+    long pushed = chatMessage.getPushedLength() - pushedBefore;
+    if (pushed > 0) {
+      metrics.contentPushed((int) Math.min(pushed, Integer.MAX_VALUE));
+      if (latencyTrace != null) {
+        traceUpdate(chatMessage.getMessage());
+      }
+    }
+  }
+
+  /** Asks the client to report when the content update just sent is painted. */
+  private void traceUpdate(T message) {
+    getElement().callJsFunction("tracePaint",
+        (double) latencyTrace.nextSequence(), (double) System.currentTimeMillis(),
+        message.getId() != null ? message.getId().toString() : null);
+  }
+
+  /**
+   * Receives the paint times of traced updates. For each update, {@code times} holds its sequence
+   * number, the server time when it was sent and the client time when it was painted, and
+   * {@code messageIds} holds the id of its message. Client times are relative to the client time of
+   * the report.
+   */
+  @ClientCallable
+  private void reportPaints(double[] times, String[] messageIds, double clientNow) {
+    if (latencyTrace == null || times == null || messageIds == null) {
+      return;
+    }
+    long receivedMillis = System.currentTimeMillis();
+    int count = Math.min(Math.min(times.length / 3, messageIds.length), LatencyTrace.MAX_SAMPLES);
+    for (int i = 0; i < count; i++) {
+      long sequence = (long) times[3 * i];
+      long sentMillis = (long) times[3 * i + 1];
+      long paintedMillis = receivedMillis - Math.max(0, (long) (clientNow - times[3 * i + 2]));
+      UUID messageId = null;
+      if (messageIds[i] != null) {
+        try {
+          messageId = UUID.fromString(messageIds[i]);
+        } catch (IllegalArgumentException e) {
+          // not a traced message
+        }
+      }
+      latencyTrace.painted(sequence, messageId, sentMillis, paintedMillis);
+    }
+  }
+
+  /**
+   * Enables tracing of the latency between content updates and the moment they are painted by the
+   * browser. While enabled, each content update displayed by the default renderer is followed by a
+   * request to report its paint time, and the browser reports paint times in batches. Tracing adds
+   * a round trip per second while content is streamed, so it is disabled by default.
+   *
+   * @param latencyTracing true to trace update latencies
+   * @see #getLatencyTrace()
+   */
+  public void setLatencyTracing(boolean latencyTracing) {
+    if (!latencyTracing) {
+      latencyTrace = null;
+    } else if (latencyTrace == null) {
+      latencyTrace = new LatencyTrace();
+    }
+  }
+
+  /** Returns whether the latency between content updates and their paint is traced. */
+  public boolean isLatencyTracing() {
+    return latencyTrace != null;
+  }
+
+  /**
+   * Returns the latencies traced since latency tracing was enabled.
+   *
+   * @return the latency trace, or null if latency tracing is disabled
+   */
+  public LatencyTrace getLatencyTrace() {
+    return latencyTrace;
+  }
+
+  private String getPushedContent(T message) {
+    String content = message.getContent();
+    if (content != null && !content.isEmpty()) {
+      metrics.contentPushed(content.length());
+    }
+    return content;
+  }
+
+  private LitRenderer<T> createLitRenderer() {
+    return LitRenderer.<T>of(
+        """
+        <vaadin-message .userName=${item.name} .userImg=${item.avatar}
+            .time=${item.epoch != null
+                ? window.fcChatMessageFormatTime(item.epoch, item.timeFormat) : item.time}>
+          <div class="lds-ellipsis" ?hidden=${!item.loading}>
+            <div></div><div></div><div></div><div></div>
+          </div>
+          <span class="fc-chat-message-content" ?hidden=${item.loading}>${item.content}</span>
+        </vaadin-message>
+        """)
+        .withProperty("name", Message::getName)
+        .withProperty("avatar", Message::getAvatar)
+        .withProperty("loading", Message::isLoading)
+        .withProperty("content", this::getPushedContent)
+        .withProperty("time", this::formatMessageTime)
+        .withProperty("epoch", this::getMessageEpoch)
+        .withProperty("timeFormat",
+            message -> clientTimeFormat != null ? clientTimeFormat.toJson() : null);
+  }
+
+  private String formatMessageTime(T message) {
+    if (clientTimeFormat != null || message.getMessageTime() == null) {
+      return null;
+    }
+    return message.getMessageTime().format(ChatMessage.TIME_FORMATTER);
+  }
+
+  private Long getMessageEpoch(T message) {
+    if (clientTimeFormat == null || message.getMessageTime() == null) {
+      return null;
+    }
+    return clientTimeFormat.toEpochMilli(message.getMessageTime());
+  }
+
+  /**
+   * Sets whether messages are rendered in lightweight mode. In lightweight mode, messages are
+   * rendered by a client-side template from plain item data, instead of creating a
+   * {@link ChatMessage} component per displayed message in the server. This reduces the server
+   * memory used by each session, as well as the state tree changes when scrolling. Markdown is not
+   * rendered in lightweight mode, and relative times are updated only when a message is refreshed.
+   *
+   * @param lightweightRendering true to render messages in lightweight mode, false to render them
+   *        with the default renderer
+   */
+  public void setLightweightRendering(boolean lightweightRendering) {
+    this.lightweightRendering = lightweightRendering;
+    this.messagesRenderer = null;
+    this.renderedMessages.clear();
+    if (this.content != null) {
+      this.content.setRenderer(
+          lightweightRendering ? createLitRenderer() : createComponentRenderer());
+    }
+  }
+
+  /** Returns whether messages are rendered in lightweight mode. */
+  public boolean isLightweightRendering() {
+    return lightweightRendering;
   }
 
   /**
@@ -674,7 +1372,12 @@ public class ChatAssistant<T extends Message> extends Div {
    */
   public void setMessagesRenderer(Renderer<T> renderer) {
     Objects.requireNonNull(renderer, "Renderer cannot not be null");
-    this.content.setRenderer(renderer);
+    this.renderedMessages.clear();
+    this.lightweightRendering = false;
+    this.messagesRenderer = renderer;
+    if (this.content != null) {
+      this.content.setRenderer(renderer);
+    }
   }
 
   /**
@@ -707,12 +1410,6 @@ public class ChatAssistant<T extends Message> extends Div {
    */
   public void setUnreadMessages(int unreadMessages) {
     this.unreadMessages = unreadMessages >= 0 ? Math.min(unreadMessages, 99) : 0;
-    unreadBadge.setText(String.valueOf(this.unreadMessages));
-    if(this.unreadMessages > 0) {
-      unreadBadge.getStyle().setScale("1");
-    }
-    else {
-      unreadBadge.getStyle().setScale("0");
-    }
+    getElement().setAttribute("unread-messages", String.valueOf(this.unreadMessages));
   }
 }
@@ -27,8 +27,12 @@ import com.vaadin.flow.component.Tag;
 import com.vaadin.flow.component.dependency.CssImport;
 import com.vaadin.flow.component.dependency.JsModule;
 import com.vaadin.flow.component.html.Div;
+import com.vaadin.flow.shared.Registration;
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import lombok.EqualsAndHashCode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
 
 /**
  * Component that wraps the vaadin-message web component and builds it based on a Message.
@@ -37,15 +41,25 @@ import lombok.EqualsAndHashCode;
  */
 @SuppressWarnings("serial")
 @JsModule("@vaadin/message-list/src/vaadin-message.js")
+@JsModule("./fc-chat-message-time.js")
 @Tag("vaadin-message")
 @CssImport("./styles/fc-chat-message-styles.css")
-@EqualsAndHashCode(callSuper=false)
 public class ChatMessage<T extends Message> extends Component implements HasComponents {
-  
+
+  static final DateTimeFormatter TIME_FORMATTER =
+      DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
   private T message;
   private boolean markdownEnabled;
+  private boolean incrementalMarkdown;
   private Div loader;
   private MarkdownViewer markdownViewer;
+  private final List<MarkdownViewer> completedBlocks = new ArrayList<>();
+  private int completedBlocksLength;
+  private int renderedLength;
+  private long pushedLength;
+  private ClientTimeFormat clientTimeFormat;
+  private Registration timeObserverRegistration;
   
   /**
    * Creates a new ChatMessage based on the supplied message without markdown support.
@@ -63,15 +77,29 @@ public class ChatMessage<T extends Message> extends Component implements HasComp
    * @param markdownEnabled whether the message supports markdown or not
    */
   public ChatMessage(T message, boolean markdownEnabled) {
+    this(message, markdownEnabled, false);
+  }
+
+  /**
+   * Creates a new ChatMessage based on the supplied message.
+   * <p>
+   * In incremental markdown mode, the blocks of the message content that were completed are
+   * displayed separately and never rendered again while the content grows, so that only the
+   * trailing open block is rendered again when content is appended.
+   *
+   * @param message message used to populate the ChatMessage instance
+   * @param markdownEnabled whether the message supports markdown or not
+   * @param incrementalMarkdown whether markdown is rendered incrementally as the content grows
+   */
+  public ChatMessage(T message, boolean markdownEnabled, boolean incrementalMarkdown) {
+    this(message, markdownEnabled, incrementalMarkdown, null);
+  }
+
+  ChatMessage(T message, boolean markdownEnabled, boolean incrementalMarkdown,
+      ClientTimeFormat clientTimeFormat) {
+    this.clientTimeFormat = clientTimeFormat;
     this.markdownEnabled = markdownEnabled;
-    loader = new Div(new Div(),new Div(), new Div(), new Div());
-    loader.setClassName("lds-ellipsis");
-    loader.setVisible(false);
-    this.add(loader);
-    if (markdownEnabled) {
-      markdownViewer = new MarkdownViewer(message.getContent());
-      this.add(markdownViewer);
-    }
+    this.incrementalMarkdown = markdownEnabled && incrementalMarkdown;
     setMessage(message);
   }
 
@@ -89,28 +117,169 @@ public class ChatMessage<T extends Message> extends Component implements HasComp
         this.setUserImg(message.getAvatar());
       }
     }
-    if (message.getMessageTime()!=null) {
-      String formattedTime = message.getMessageTime().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm"));
-      this.setTime(formattedTime);
+    updateTime();
+  }
+
+  /**
+   * Sets the format used for displaying the message time in the browser. When a format is set, the
+   * message time is sent to the client as epoch milliseconds in the {@code data-epoch} attribute,
+   * and it is formatted by the client. Otherwise, the message time is formatted by the server.
+   * <p>
+   * The format is sent in the {@code data-time-format} attribute, and the client formats the time
+   * again whenever either attribute changes, so that updating the message only sends the attributes
+   * that changed.
+   *
+   * @param clientTimeFormat the format, or null for formatting the message time in the server
+   */
+  public void setClientTimeFormat(ClientTimeFormat clientTimeFormat) {
+    if (!Objects.equals(this.clientTimeFormat, clientTimeFormat)) {
+      this.clientTimeFormat = clientTimeFormat;
+      if (clientTimeFormat == null) {
+        getElement().removeAttribute("data-epoch");
+        getElement().removeAttribute("data-time-format");
+      }
+      updateTime();
     }
   }
 
+  /** Returns the format used for displaying the message time in the browser, if any. */
+  public ClientTimeFormat getClientTimeFormat() {
+    return clientTimeFormat;
+  }
+
+  private void updateTime() {
+    LocalDateTime messageTime = message.getMessageTime();
+    if (clientTimeFormat != null) {
+      getElement().removeAttribute("time");
+      if (messageTime != null) {
+        getElement().setAttribute("data-epoch",
+            Long.toString(clientTimeFormat.toEpochMilli(messageTime)));
+      } else {
+        getElement().removeAttribute("data-epoch");
+      }
+      getElement().setAttribute("data-time-format", clientTimeFormat.toJson());
+      if (timeObserverRegistration == null) {
+        timeObserverRegistration = getElement().addAttachListener(ev -> observeTime());
+        if (getElement().getNode().isAttached()) {
+          observeTime();
+        }
+      }
+    } else if (messageTime != null) {
+      this.setTime(messageTime.format(TIME_FORMATTER));
+    }
+  }
+
+  /** Asks the client to format the time whenever the time attributes change, once per attach. */
+  private void observeTime() {
+    getElement().executeJs("window.fcChatMessageTime(this)");
+  }
+
   /**
    * Updates the displayed message content and loading state.
    * @param message
    */
   private void updateMessage(T message) {
-    loader.setVisible(message.isLoading());
+    setLoaderVisible(message.isLoading());
     if (!message.isLoading()) {
-      if (markdownEnabled) {
-        markdownViewer.setContent(message.getContent());
+      renderedLength = message.getContent() != null ? message.getContent().length() : 0;
+      if (incrementalMarkdown) {
+        completedBlocks.forEach(this::remove);
+        completedBlocks.clear();
+        completedBlocksLength = 0;
+        updateIncrementalMarkdown(message.getContent());
+      } else if (markdownEnabled) {
+        showMarkdown(message.getContent());
       } else {
-        this.getElement().executeJs("[...this.childNodes].forEach(node => node.nodeType === 3 && this.removeChild(node));");
-        this.getElement().executeJs("this.appendChild(document.createTextNode($0));", message.getContent());
+        this.getElement().executeJs(
+            "[...this.childNodes].forEach(node => node.nodeType === 3 && this.removeChild(node));"
+                + "this.appendChild(document.createTextNode($0));",
+            message.getContent());
+        pushedLength += renderedLength;
       }
     }
   }
-  
+
+  /**
+   * Sends to the client the content that was appended to the underlying message since it was last
+   * displayed. Only the appended fragment is sent, instead of the whole content. If the message
+   * content did not grow (or the message was previously displayed as loading), the whole message
+   * is displayed again.
+   */
+  public void appendContent() {
+    String content = message.getContent();
+    if (message.isLoading() || loader != null || content == null
+        || content.length() < renderedLength) {
+      updateMessage(message);
+    } else if (content.length() > renderedLength) {
+      if (incrementalMarkdown) {
+        updateIncrementalMarkdown(content);
+      } else if (markdownEnabled) {
+        showMarkdown(content);
+      } else {
+        this.getElement().executeJs("this.appendChild(document.createTextNode($0));",
+            content.substring(renderedLength));
+        pushedLength += content.length() - renderedLength;
+      }
+      renderedLength = content.length();
+    }
+  }
+
+  /**
+   * Moves the blocks that were completed into their own viewers, and displays the remaining open
+   * block in the trailing viewer. If the content can no longer be split (because of link reference
+   * or footnote definitions), the completed blocks are merged back into the trailing viewer.
+   */
+  private void updateIncrementalMarkdown(String content) {
+    content = content != null ? content : "";
+    int completedLength = MarkdownBlocks.completedLength(content, completedBlocksLength);
+    if (completedLength < completedBlocksLength) {
+      completedBlocks.forEach(this::remove);
+      completedBlocks.clear();
+      completedBlocksLength = 0;
+    }
+    if (completedLength > completedBlocksLength) {
+      MarkdownViewer block =
+          new MarkdownViewer(content.substring(completedBlocksLength, completedLength));
+      if (markdownViewer != null) {
+        addComponentAtIndex(getElement().indexOfChild(markdownViewer.getElement()), block);
+      } else {
+        add(block);
+      }
+      completedBlocks.add(block);
+      pushedLength += block.getContent().length();
+      completedBlocksLength = completedLength;
+    }
+    showMarkdown(content.substring(completedBlocksLength));
+  }
+
+  /** Displays the loader, which is created when needed and dropped when hidden. */
+  private void setLoaderVisible(boolean visible) {
+    if (visible && loader == null) {
+      loader = new Div(new Div(), new Div(), new Div(), new Div());
+      loader.setClassName("lds-ellipsis");
+      addComponentAsFirst(loader);
+    } else if (!visible && loader != null) {
+      remove(loader);
+      loader = null;
+    }
+  }
+
+  /** Displays markdown content in the trailing viewer, which is created when there is content. */
+  private void showMarkdown(String content) {
+    if (markdownViewer != null) {
+      markdownViewer.setContent(content);
+    } else if (content != null && !content.isEmpty()) {
+      markdownViewer = new MarkdownViewer(content);
+      add(markdownViewer);
+    }
+    pushedLength += content != null ? content.length() : 0;
+  }
+
+  /** Returns the number of content characters sent to the client by this component. */
+  long getPushedLength() {
+    return pushedLength;
+  }
+
   /**
    * Returns the underlying message.
    * 
@@ -0,0 +1,179 @@
+/*-
+ * #%L
+ * Chat Assistant Add-on
+ * %%
+ * Copyright (C) 2023 - 2026 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.chatassistant;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.FormatStyle;
+import java.util.Locale;
+import java.util.Objects;
+import lombok.EqualsAndHashCode;
+
+/**
+ * Format of the message times when they are formatted in the browser. Message times are sent to
+ * the client as epoch milliseconds and formatted with {@code Intl.DateTimeFormat}, in the time zone
+ * of the browser. Relative times (such as "2 minutes ago") are kept up to date by the client.
+ *
+ * <p>Instances of this class are immutable.
+ */
+@SuppressWarnings("serial")
+@EqualsAndHashCode
+public final class ClientTimeFormat implements Serializable {
+
+  private final String pattern;
+  private final FormatStyle dateStyle;
+  private final FormatStyle timeStyle;
+  private final boolean relative;
+  private final Locale locale;
+  private final ZoneId messageTimeZone;
+
+  @EqualsAndHashCode.Exclude
+  private transient String json;
+
+  private ClientTimeFormat(String pattern, FormatStyle dateStyle, FormatStyle timeStyle,
+      boolean relative, Locale locale, ZoneId messageTimeZone) {
+    this.pattern = pattern;
+    this.dateStyle = dateStyle;
+    this.timeStyle = timeStyle;
+    this.relative = relative;
+    this.locale = locale;
+    this.messageTimeZone = messageTimeZone;
+  }
+
+  /**
+   * Creates a format based on a pattern. The pattern supports the letters {@code y}, {@code M},
+   * {@code d}, {@code H}, {@code h}, {@code m}, {@code s} and {@code a} with the same meaning as in
+   * {@link java.time.format.DateTimeFormatter}, and literal text enclosed in single quotes.
+   *
+   * @param pattern the pattern, for instance {@code "yyyy-MM-dd HH:mm"}
+   * @return the format
+   */
+  public static ClientTimeFormat ofPattern(String pattern) {
+    Objects.requireNonNull(pattern, "Pattern cannot be null");
+    return new ClientTimeFormat(pattern, null, null, false, null, ZoneId.systemDefault());
+  }
+
+  /**
+   * Creates a format based on the localized date and time styles of {@code Intl.DateTimeFormat}.
+   *
+   * @param dateStyle the date style, or null for not displaying the date
+   * @param timeStyle the time style, or null for not displaying the time
+   * @return the format
+   */
+  public static ClientTimeFormat ofStyle(FormatStyle dateStyle, FormatStyle timeStyle) {
+    if (dateStyle == null && timeStyle == null) {
+      throw new IllegalArgumentException("Either date style or time style must be specified");
+    }
+    return new ClientTimeFormat(null, dateStyle, timeStyle, false, null, ZoneId.systemDefault());
+  }
+
+  /**
+   * Creates a format that displays the time relative to the current time, such as "2 minutes ago".
+   *
+   * @return the format
+   */
+  public static ClientTimeFormat relative() {
+    return new ClientTimeFormat(null, null, null, true, null, ZoneId.systemDefault());
+  }
+
+  /**
+   * Returns a copy of this format that uses the given locale, instead of the locale of the browser.
+   *
+   * @param locale the locale, or null for the locale of the browser
+   * @return the format
+   */
+  public ClientTimeFormat withLocale(Locale locale) {
+    return new ClientTimeFormat(pattern, dateStyle, timeStyle, relative, locale, messageTimeZone);
+  }
+
+  /**
+   * Returns a copy of this format that interprets message times in the given time zone. By default,
+   * message times are interpreted in the time zone of the server.
+   *
+   * @param messageTimeZone the time zone of the message times
+   * @return the format
+   */
+  public ClientTimeFormat withMessageTimeZone(ZoneId messageTimeZone) {
+    Objects.requireNonNull(messageTimeZone, "Message time zone cannot be null");
+    return new ClientTimeFormat(pattern, dateStyle, timeStyle, relative, locale, messageTimeZone);
+  }
+
+  /** Returns the locale of this format, or null if the locale of the browser is used. */
+  public Locale getLocale() {
+    return locale;
+  }
+
+  /** Returns the time zone in which message times are interpreted. */
+  public ZoneId getMessageTimeZone() {
+    return messageTimeZone;
+  }
+
+  long toEpochMilli(LocalDateTime messageTime) {
+    return messageTime.atZone(messageTimeZone).toInstant().toEpochMilli();
+  }
+
+  /** Returns the options passed to the client, as a JSON string. */
+  String toJson() {
+    if (json == null) {
+      StringBuilder options = new StringBuilder("{");
+      if (pattern != null) {
+        appendOption(options, "pattern", quote(pattern));
+      }
+      if (dateStyle != null) {
+        appendOption(options, "dateStyle", quote(dateStyle.name().toLowerCase(Locale.ENGLISH)));
+      }
+      if (timeStyle != null) {
+        appendOption(options, "timeStyle", quote(timeStyle.name().toLowerCase(Locale.ENGLISH)));
+      }
+      if (relative) {
+        appendOption(options, "relative", "true");
+      }
+      if (locale != null) {
+        appendOption(options, "locale", quote(locale.toLanguageTag()));
+      }
+      json = options.append('}').toString();
+    }
+    return json;
+  }
+
+  private static void appendOption(StringBuilder options, String name, String value) {
+    if (options.length() > 1) {
+      options.append(',');
+    }
+    options.append('"').append(name).append("\":").append(value);
+  }
+
+  private static String quote(String value) {
+    StringBuilder quoted = new StringBuilder(value.length() + 2).append('"');
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == '"' || c == '\\') {
+        quoted.append('\\').append(c);
+      } else if (c < 0x20) {
+        quoted.append(String.format("\\u%04x", (int) c));
+      } else {
+        quoted.append(c);
+      }
+    }
+    return quoted.append('"').toString();
+  }
+
+}
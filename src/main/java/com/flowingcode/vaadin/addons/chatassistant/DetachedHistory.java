@@ -0,0 +1,109 @@
+/*-
+ * #%L
+ * Chat Assistant Add-on
+ * %%
+ * Copyright (C) 2023 - 2026 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.chatassistant;
+
+import com.flowingcode.vaadin.addons.chatassistant.model.Message;
+import com.flowingcode.vaadin.addons.chatassistant.store.HistorySource;
+import com.vaadin.flow.function.SerializableConsumer;
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * List of messages that is not written in the serialized form. Only the conversation key and the
+ * source are serialized, and the messages are loaded from the source the first time the list is
+ * accessed, after it was created or deserialized.
+ */
+@SuppressWarnings("serial")
+class DetachedHistory<T extends Message> extends AbstractList<T>
+    implements RandomAccess, Serializable {
+
+  private final String conversationKey;
+  private final HistorySource<T> source;
+  private final SerializableConsumer<T> loadListener;
+  private transient List<T> messages;
+
+  DetachedHistory(String conversationKey, HistorySource<T> source,
+      SerializableConsumer<T> loadListener) {
+    this.conversationKey =
+        Objects.requireNonNull(conversationKey, "Conversation key cannot be null");
+    this.source = Objects.requireNonNull(source, "History source cannot be null");
+    this.loadListener = loadListener;
+  }
+
+  String getConversationKey() {
+    return conversationKey;
+  }
+
+  HistorySource<T> getSource() {
+    return source;
+  }
+
+  /** Returns whether the messages were loaded since the list was created or deserialized. */
+  boolean isLoaded() {
+    return messages != null;
+  }
+
+  private List<T> messages() {
+    if (messages == null) {
+      List<T> loaded = source.load(conversationKey);
+      messages = loaded != null ? new ArrayList<>(loaded) : new ArrayList<>();
+      messages.forEach(loadListener);
+    }
+    return messages;
+  }
+
+  @Override
+  public T get(int index) {
+    return messages().get(index);
+  }
+
+  @Override
+  public int size() {
+    return messages().size();
+  }
+
+  @Override
+  public boolean add(T message) {
+    modCount++;
+    return messages().add(message);
+  }
+
+  @Override
+  public void add(int index, T message) {
+    modCount++;
+    messages().add(index, message);
+  }
+
+  @Override
+  public T set(int index, T message) {
+    return messages().set(index, message);
+  }
+
+  @Override
+  public T remove(int index) {
+    modCount++;
+    return messages().remove(index);
+  }
+
+}
@@ -0,0 +1,156 @@
+/*-
+ * #%L
+ * Chat Assistant Add-on
+ * %%
+ * Copyright (C) 2023 - 2026 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.chatassistant;
+
+import java.io.Serializable;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Latencies between the content updates of a {@link ChatAssistant} and the moment they are
+ * painted by the browser, measured while latency tracing is enabled.
+ *
+ * <p>Each traced update carries a sequence number and the server time when it was sent. The browser
+ * reports when the update was painted, relative to the moment of the report, and the paint time is
+ * converted to the server clock from the time the report is received. Thus, latencies are not
+ * affected by the clock skew between the server and the browser, but they include the time the
+ * report takes to reach the server.
+ *
+ * <p>The browser reports paints in the order of their sequence numbers. Reports of updates that
+ * were already reported are discarded, and updates that were skipped by a report are counted as
+ * lost (for instance, when the browser was reloaded before reporting them).
+ *
+ * <p>Only the most recent {@value #MAX_SAMPLES} update latencies and the time to first token of the
+ * most recent {@value #MAX_MESSAGES} messages are kept.
+ *
+ * @see ChatAssistant#setLatencyTracing(boolean)
+ */
+@SuppressWarnings("serial")
+public class LatencyTrace implements Serializable {
+
+  static final int MAX_SAMPLES = 1024;
+  static final int MAX_MESSAGES = 1024;
+
+  private static class BoundedMap<K, V> extends LinkedHashMap<K, V> {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+      return size() > MAX_MESSAGES;
+    }
+  }
+
+  private long sequence;
+  private long reportedSequence;
+  private long lostCount;
+  private final long[] samples = new long[MAX_SAMPLES];
+  private int sampleCount;
+  private long updateCount;
+  private final Map<UUID, Long> pendingMessages = new BoundedMap<>();
+  private final Map<UUID, Long> timesToFirstToken = new BoundedMap<>();
+
+  LatencyTrace() {}
+
+  /** Returns the sequence number of the next traced update. */
+  long nextSequence() {
+    return ++sequence;
+  }
+
+  /** Records the time a message was sent, for measuring the time until its content is painted. */
+  void messageSent(UUID messageId, long serverMillis) {
+    pendingMessages.put(messageId, serverMillis);
+  }
+
+  /**
+   * Records that an update was painted. Reports of updates that were already reported, or that
+   * were not traced, are discarded.
+   *
+   * @param sequence the sequence number of the update
+   * @param messageId the id of the updated message
+   * @param sentMillis the server time when the update was sent
+   * @param paintedMillis the server time when the update was painted
+   */
+  void painted(long sequence, UUID messageId, long sentMillis, long paintedMillis) {
+    if (sequence <= reportedSequence || sequence > this.sequence) {
+      return;
+    }
+    lostCount += sequence - reportedSequence - 1;
+    reportedSequence = sequence;
+    samples[(int) (updateCount++ % MAX_SAMPLES)] = Math.max(0, paintedMillis - sentMillis);
+    sampleCount = (int) Math.min(updateCount, MAX_SAMPLES);
+    Long messageSent = messageId != null ? pendingMessages.remove(messageId) : null;
+    if (messageSent != null) {
+      timesToFirstToken.put(messageId, Math.max(0, paintedMillis - messageSent));
+    }
+  }
+
+  /** Returns the number of traced updates whose paint was reported. */
+  public long getUpdateCount() {
+    return updateCount;
+  }
+
+  /** Returns the number of traced updates whose paint was not reported, while later ones were. */
+  public long getLostCount() {
+    return lostCount;
+  }
+
+  /**
+   * Returns the latency between sending an update and painting it, at the given percentile of the
+   * most recent updates.
+   *
+   * @param percentile the percentile, between 0 and 100
+   * @return the latency, or {@link Duration#ZERO} if no update was traced
+   */
+  public Duration getUpdateLatency(double percentile) {
+    if (percentile < 0 || percentile > 100) {
+      throw new IllegalArgumentException("Percentile must be between 0 and 100");
+    }
+    if (sampleCount == 0) {
+      return Duration.ZERO;
+    }
+    long[] sorted = Arrays.copyOf(samples, sampleCount);
+    Arrays.sort(sorted);
+    int rank = (int) Math.ceil(percentile / 100 * sampleCount);
+    return Duration.ofMillis(sorted[Math.max(0, rank - 1)]);
+  }
+
+  /**
+   * Returns the time between sending a message and painting its first content.
+   *
+   * @param messageId the id of the message
+   * @return the time to first token, or empty if it was not traced
+   */
+  public Optional<Duration> getTimeToFirstToken(UUID messageId) {
+    return Optional.ofNullable(timesToFirstToken.get(messageId)).map(Duration::ofMillis);
+  }
+
+  /** Discards the traced latencies, and ignores the reports of updates traced so far. */
+  public void reset() {
+    sampleCount = 0;
+    updateCount = 0;
+    reportedSequence = sequence;
+    lostCount = 0;
+    pendingMessages.clear();
+    timesToFirstToken.clear();
+  }
+
+}
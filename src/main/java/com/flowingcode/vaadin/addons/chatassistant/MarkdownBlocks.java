@@ -0,0 +1,131 @@
+/*-
+ * #%L
+ * Chat Assistant Add-on
+ * %%
+ * Copyright (C) 2023 - 2026 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.chatassistant;
+
+/**
+ * Splits growing markdown content into completed top-level blocks and a trailing open block.
+ *
+ * <p>A block is considered completed when a non-indented line starts after a blank line, or after
+ * the closing line of a fenced code block. Blank lines inside fenced code blocks are ignored. A
+ * list is kept open while another item may follow the blank line, so that loose lists are not
+ * split into separate lists.
+ *
+ * <p>Link reference and footnote definitions may be used by any block of the document, so content
+ * that has such definitions is not split at all.
+ */
+final class MarkdownBlocks {
+
+  private MarkdownBlocks() {}
+
+  /**
+   * Returns the length of the longest prefix of the content that is made of completed blocks.
+   *
+   * @param content the markdown content
+   * @param from the length of a prefix previously known to be made of completed blocks
+   * @return the length of the completed prefix, which is never less than {@code from}, or 0 if the
+   *     content cannot be split because it has link reference or footnote definitions
+   */
+  static int completedLength(String content, int from) {
+    int completed = from;
+    boolean boundary = false;
+    boolean list = false;
+    String fence = null;
+    int lineStart = from;
+    while (lineStart < content.length()) {
+      int lineEnd = content.indexOf('\n', lineStart);
+      String line = content.substring(lineStart, lineEnd < 0 ? content.length() : lineEnd);
+      if (fence == null && isDefinition(line)) {
+        return 0;
+      }
+      if (fence == null && startsBlock(line)) {
+        // an incomplete line that follows a list may still become another item
+        boolean continuesList = list && (lineEnd < 0 || isListItem(line));
+        if (boundary && !continuesList) {
+          completed = lineStart;
+        }
+        list = isListItem(line) || (list && !boundary);
+      }
+      if (lineEnd < 0) {
+        break;
+      }
+      String marker = fenceMarker(line);
+      if (fence == null) {
+        fence = marker;
+        boundary = marker == null && line.isBlank();
+      } else if (marker != null && marker.charAt(0) == fence.charAt(0)
+          && marker.length() >= fence.length() && line.strip().length() == marker.length()) {
+        fence = null;
+        boundary = true;
+      }
+      lineStart = lineEnd + 1;
+    }
+    return completed;
+  }
+
+  private static boolean startsBlock(String line) {
+    return !line.isEmpty() && line.charAt(0) != ' ' && line.charAt(0) != '\t';
+  }
+
+  /** Returns whether the given non-indented line starts a list item. */
+  private static boolean isListItem(String line) {
+    int i = 0;
+    char c = line.charAt(0);
+    if (c == '-' || c == '+' || c == '*') {
+      i = 1;
+    } else {
+      while (i < line.length() && i < 9 && Character.isDigit(line.charAt(i))) {
+        i++;
+      }
+      if (i == 0 || i == line.length() || line.charAt(i) != '.' && line.charAt(i) != ')') {
+        return false;
+      }
+      i++;
+    }
+    return i == line.length() || line.charAt(i) == ' ' || line.charAt(i) == '\t';
+  }
+
+  /** Returns whether the given line is a link reference or footnote definition. */
+  private static boolean isDefinition(String line) {
+    String stripped = line.stripLeading();
+    if (line.length() - stripped.length() > 3 || !stripped.startsWith("[")) {
+      return false;
+    }
+    int close = stripped.indexOf(']');
+    return close > 1 && close + 1 < stripped.length() && stripped.charAt(close + 1) == ':';
+  }
+
+  /** Returns the fence that opens or closes a fenced code block in the given line, if any. */
+  private static String fenceMarker(String line) {
+    String stripped = line.stripLeading();
+    if (line.length() - stripped.length() > 3 || stripped.length() < 3) {
+      return null;
+    }
+    char c = stripped.charAt(0);
+    if (c != '`' && c != '~') {
+      return null;
+    }
+    int length = 0;
+    while (length < stripped.length() && stripped.charAt(length) == c) {
+      length++;
+    }
+    return length >= 3 ? stripped.substring(0, length) : null;
+  }
+
+}
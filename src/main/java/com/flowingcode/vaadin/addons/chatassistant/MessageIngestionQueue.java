@@ -0,0 +1,95 @@
+/*-
+ * #%L
+ * Chat Assistant Add-on
+ * %%
+ * Copyright (C) 2023 - 2026 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.chatassistant;
+
+import com.flowingcode.vaadin.addons.chatassistant.model.Message;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.UIDetachedException;
+import com.vaadin.flow.function.SerializableConsumer;
+import java.io.Serializable;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Queue of message operations submitted from any thread to a {@link ChatAssistant}. Operations are
+ * drained in batches, all the operations queued up to the moment of draining being applied inside
+ * a single {@link UI#access(com.vaadin.flow.server.Command)}.
+ */
+@SuppressWarnings("serial")
+class MessageIngestionQueue<T extends Message> implements Serializable {
+
+  private final ChatAssistant<T> owner;
+  private final Queue<SerializableConsumer<ChatAssistant<T>>> operations =
+      new ConcurrentLinkedQueue<>();
+  private final AtomicBoolean drainScheduled = new AtomicBoolean();
+  private final AtomicInteger depth = new AtomicInteger();
+  private volatile UI ui;
+
+  MessageIngestionQueue(ChatAssistant<T> owner) {
+    this.owner = owner;
+  }
+
+  /** Queues an operation, scheduling a drain unless one is already pending. */
+  void enqueue(SerializableConsumer<ChatAssistant<T>> operation) {
+    operations.add(operation);
+    depth.incrementAndGet();
+    if (drainScheduled.compareAndSet(false, true)) {
+      UI currentUI = ui;
+      if (currentUI == null) {
+        // operations are drained when the component is attached
+        drainScheduled.set(false);
+        return;
+      }
+      try {
+        currentUI.access(this::drain);
+      } catch (UIDetachedException e) {
+        drainScheduled.set(false);
+      }
+    }
+  }
+
+  /** Sets the UI used for draining, and drains the pending operations. Requires the UI lock. */
+  void attach(UI ui) {
+    this.ui = ui;
+    drain();
+  }
+
+  /** Stops draining until the component is attached again. */
+  void detach() {
+    this.ui = null;
+  }
+
+  /** Applies the pending operations. Requires the UI lock. */
+  void drain() {
+    drainScheduled.set(false);
+    int pending = depth.get();
+    if (pending > 0) {
+      owner.getMetrics().queueDrained(pending);
+    }
+    SerializableConsumer<ChatAssistant<T>> operation;
+    while ((operation = operations.poll()) != null) {
+      depth.decrementAndGet();
+      operation.accept(owner);
+    }
+  }
+
+}
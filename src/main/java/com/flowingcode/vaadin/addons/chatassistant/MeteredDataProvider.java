@@ -0,0 +1,58 @@
+/*-
+ * #%L
+ * Chat Assistant Add-on
+ * %%
+ * Copyright (C) 2023 - 2026 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.chatassistant;
+
+import com.flowingcode.vaadin.addons.chatassistant.metrics.ChatAssistantMetrics;
+import com.flowingcode.vaadin.addons.chatassistant.model.Message;
+import com.vaadin.flow.data.provider.DataProvider;
+import com.vaadin.flow.data.provider.DataProviderWrapper;
+import com.vaadin.flow.data.provider.Query;
+import com.vaadin.flow.function.SerializableSupplier;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/** Data provider that reports the size and duration of the queries to the wrapped provider. */
+@SuppressWarnings("serial")
+class MeteredDataProvider<T extends Message> extends DataProviderWrapper<T, Object, Object> {
+
+  private final SerializableSupplier<ChatAssistantMetrics> metrics;
+
+  @SuppressWarnings("unchecked")
+  MeteredDataProvider(DataProvider<T, ?> dataProvider,
+      SerializableSupplier<ChatAssistantMetrics> metrics) {
+    super((DataProvider<T, Object>) dataProvider);
+    this.metrics = metrics;
+  }
+
+  @Override
+  protected Object getFilter(Query<T, Object> query) {
+    return query.getFilter().orElse(null);
+  }
+
+  @Override
+  public Stream<T> fetch(Query<T, Object> query) {
+    long start = System.nanoTime();
+    List<T> items = super.fetch(query).collect(Collectors.toList());
+    metrics.get().fetched(items.size(), System.nanoTime() - start);
+    return items.stream();
+  }
+
+}
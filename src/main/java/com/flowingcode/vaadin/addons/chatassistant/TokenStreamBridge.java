@@ -0,0 +1,202 @@
+/*-
+ * #%L
+ * Chat Assistant Add-on
+ * %%
+ * Copyright (C) 2023 - 2026 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.chatassistant;
+
+import com.flowingcode.vaadin.addons.chatassistant.model.Message;
+import java.io.Serializable;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Stream;
+
+/**
+ * Consumes a source of tokens and appends them to a message of a {@link ChatAssistant}.
+ *
+ * <p>Sources are consumed on virtual threads when the runtime supports them, and on daemon platform
+ * threads otherwise. At most {@link #MAX_PENDING_TOKENS} tokens are pending to be applied under the
+ * UI lock at any time: iterators are not advanced and publishers are not requested more tokens
+ * until the pending ones are applied.
+ */
+@SuppressWarnings("serial")
+class TokenStreamBridge<T extends Message> implements Serializable {
+
+  static final int MAX_PENDING_TOKENS = 64;
+
+  private static final ExecutorService EXECUTOR = createExecutor();
+
+  private final ChatAssistant<T> owner;
+  private final T message;
+  private final transient CompletableFuture<Void> completion = new CompletableFuture<>();
+  private transient Runnable cancellation;
+  private final long startNanos = System.nanoTime();
+  private int tokens;
+
+  TokenStreamBridge(ChatAssistant<T> owner, T message) {
+    this.owner = owner;
+    this.message = message;
+    completion.whenComplete((result, error) -> {
+      if (completion.isCancelled()) {
+        cancelSource();
+        owner.enqueue(chatAssistant -> {
+          stopLoading(chatAssistant);
+          reportCompleted(chatAssistant);
+        });
+      }
+    });
+  }
+
+  private static ExecutorService createExecutor() {
+    try {
+      return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor")
+          .invoke(null);
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      return Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "chat-assistant-token-stream");
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+  }
+
+  /** Returns a future that completes after the last token is applied, or cancels the source. */
+  CompletableFuture<Void> getCompletion() {
+    return completion;
+  }
+
+  void consume(Stream<String> tokens) {
+    EXECUTOR.execute(() -> {
+      try (tokens) {
+        consume(tokens.iterator(), Thread.currentThread());
+      }
+    });
+  }
+
+  void consume(Iterator<String> tokens) {
+    EXECUTOR.execute(() -> consume(tokens, Thread.currentThread()));
+  }
+
+  private void consume(Iterator<String> tokens, Thread worker) {
+    setCancellation(worker::interrupt);
+    Semaphore permits = new Semaphore(MAX_PENDING_TOKENS);
+    try {
+      while (!completion.isDone() && tokens.hasNext()) {
+        permits.acquire();
+        deliver(tokens.next(), permits::release);
+      }
+      finish(null);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (RuntimeException e) {
+      finish(e);
+    } finally {
+      synchronized (this) {
+        // the worker may be a pooled thread, that must not be interrupted after returning
+        cancellation = null;
+        Thread.interrupted();
+      }
+    }
+  }
+
+  private synchronized void setCancellation(Runnable cancellation) {
+    this.cancellation = cancellation;
+  }
+
+  private synchronized void cancelSource() {
+    if (cancellation != null) {
+      cancellation.run();
+    }
+  }
+
+  void consume(Flow.Publisher<String> tokens) {
+    EXECUTOR.execute(() -> tokens.subscribe(new Flow.Subscriber<String>() {
+      private Flow.Subscription subscription;
+
+      @Override
+      public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        setCancellation(subscription::cancel);
+        if (completion.isDone()) {
+          subscription.cancel();
+        } else {
+          subscription.request(MAX_PENDING_TOKENS);
+        }
+      }
+
+      @Override
+      public void onNext(String token) {
+        deliver(token, () -> subscription.request(1));
+      }
+
+      @Override
+      public void onError(Throwable error) {
+        finish(error);
+      }
+
+      @Override
+      public void onComplete() {
+        finish(null);
+      }
+    }));
+  }
+
+  private void deliver(String token, Runnable onApplied) {
+    if (token == null) {
+      onApplied.run();
+      return;
+    }
+    owner.enqueue(chatAssistant -> {
+      if (!completion.isDone()) {
+        message.setLoading(false);
+        tokens++;
+        chatAssistant.appendToMessage(message, token);
+      }
+      onApplied.run();
+    });
+  }
+
+  private void finish(Throwable error) {
+    owner.enqueue(chatAssistant -> {
+      stopLoading(chatAssistant);
+      if (!completion.isDone()) {
+        reportCompleted(chatAssistant);
+      }
+      if (error != null) {
+        completion.completeExceptionally(error);
+      } else {
+        completion.complete(null);
+      }
+    });
+  }
+
+  private void reportCompleted(ChatAssistant<T> chatAssistant) {
+    chatAssistant.getMetrics().streamCompleted(tokens, System.nanoTime() - startNanos);
+  }
+
+  private void stopLoading(ChatAssistant<T> chatAssistant) {
+    if (message.isLoading()) {
+      message.setLoading(false);
+      chatAssistant.updateMessage(message);
+    }
+  }
+
+}
@@ -0,0 +1,133 @@
+/*-
+ * #%L
+ * Chat Assistant Add-on
+ * %%
+ * Copyright (C) 2023 - 2026 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.chatassistant;
+
+import com.flowingcode.vaadin.addons.chatassistant.model.Message;
+import com.vaadin.flow.component.UI;
+import java.io.Serializable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Buffers the content updates of the messages displayed by a {@link ChatAssistant} and flushes
+ * them at a maximum rate, merging intermediate states of the same message.
+ */
+@SuppressWarnings("serial")
+class UpdateCoalescer<T extends Message> implements Serializable {
+
+  private static final ScheduledExecutorService SCHEDULER =
+      Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "chat-assistant-update-coalescer");
+        thread.setDaemon(true);
+        return thread;
+      });
+
+  private final ChatAssistant<T> owner;
+  private final long intervalNanos;
+  private final int maxChars;
+
+  /** Pending messages, mapped to true if they require a full update. */
+  private final Map<T, Boolean> pending = new LinkedHashMap<>();
+  private int pendingChars;
+  private long lastFlush;
+  private transient ScheduledFuture<?> scheduledFlush;
+
+  UpdateCoalescer(ChatAssistant<T> owner, Duration interval, int maxChars) {
+    this.owner = owner;
+    this.intervalNanos = interval.toNanos();
+    this.maxChars = maxChars;
+    this.lastFlush = System.nanoTime() - intervalNanos;
+  }
+
+  /** Buffers a full update of the given message. */
+  void update(T message) {
+    pending.put(message, Boolean.TRUE);
+    onChange();
+  }
+
+  /** Buffers a fragment of the given length that was appended to the message content. */
+  void append(T message, int length) {
+    pending.merge(message, Boolean.FALSE, Boolean::logicalOr);
+    pendingChars += length;
+    onChange();
+  }
+
+  private void onChange() {
+    long elapsed = System.nanoTime() - lastFlush;
+    if (elapsed >= intervalNanos || (maxChars > 0 && pendingChars >= maxChars)) {
+      flush();
+    } else {
+      scheduleFlush(intervalNanos - elapsed);
+    }
+  }
+
+  private void scheduleFlush(long delayNanos) {
+    if (scheduledFlush != null) {
+      return;
+    }
+    Optional<UI> ui = owner.getUI();
+    if (ui.isEmpty()) {
+      // nothing is pushed while detached
+      flush();
+      return;
+    }
+    UI currentUI = ui.get();
+    ScheduledFuture<?>[] task = new ScheduledFuture<?>[1];
+    task[0] = SCHEDULER.schedule(() -> currentUI.access(() -> {
+      // the task is stale if a flush ran (and maybe scheduled another task) since it was queued
+      if (scheduledFlush == task[0]) {
+        scheduledFlush = null;
+        flush();
+      }
+    }), delayNanos, TimeUnit.NANOSECONDS);
+    scheduledFlush = task[0];
+  }
+
+  /** Applies all the pending updates. */
+  void flush() {
+    if (scheduledFlush != null) {
+      scheduledFlush.cancel(false);
+      scheduledFlush = null;
+    }
+    if (pending.isEmpty()) {
+      return;
+    }
+    lastFlush = System.nanoTime();
+    pendingChars = 0;
+    List<Map.Entry<T, Boolean>> updates = new ArrayList<>(pending.entrySet());
+    pending.clear();
+    for (Map.Entry<T, Boolean> update : updates) {
+      if (update.getValue()) {
+        owner.refreshMessage(update.getKey());
+      } else {
+        owner.refreshAppendedContent(update.getKey());
+      }
+    }
+  }
+
+}
@@ -0,0 +1,97 @@
+/*-
+ * #%L
+ * Chat Assistant Add-on
+ * %%
+ * Copyright (C) 2023 - 2026 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.chatassistant.metrics;
+
+import java.io.Serializable;
+
+/**
+ * Listener notified of the work done by a
+ * {@link com.flowingcode.vaadin.addons.chatassistant.ChatAssistant}, for reporting it to a
+ * monitoring system. All the methods do nothing by default, so that implementations override only
+ * what they report.
+ *
+ * <p>Methods are called while holding the session lock, except for
+ * {@link #fetched(int, long)}, which is called whenever the data provider is queried. A metrics
+ * instance may be shared by the chat assistants of several sessions, in which case it must be
+ * thread-safe.
+ *
+ * @see com.flowingcode.vaadin.addons.chatassistant.ChatAssistant#setMetrics(ChatAssistantMetrics)
+ */
+public interface ChatAssistantMetrics extends Serializable {
+
+  /** Metrics that report nothing. */
+  ChatAssistantMetrics NO_OP = new ChatAssistantMetrics() {
+    private static final long serialVersionUID = 1L;
+
+    private Object readResolve() {
+      return NO_OP;
+    }
+  };
+
+  /** Returns metrics that report nothing. */
+  static ChatAssistantMetrics noOp() {
+    return NO_OP;
+  }
+
+  /** Called when a message is sent. */
+  default void messageSent() {}
+
+  /** Called when a message is updated, either as a whole or by appending to its content. */
+  default void messageUpdated() {}
+
+  /**
+   * Called when the list of messages is refreshed.
+   *
+   * @param all true if the whole list was refreshed, false if a single message was refreshed
+   */
+  default void refreshed(boolean all) {}
+
+  /**
+   * Called after the data provider is queried for a page of messages.
+   *
+   * @param count the number of messages fetched
+   * @param nanos the duration of the query, in nanoseconds
+   */
+  default void fetched(int count, long nanos) {}
+
+  /**
+   * Called when message content is sent to the client.
+   *
+   * @param length the number of characters of content sent
+   */
+  default void contentPushed(int length) {}
+
+  /**
+   * Called when a stream of tokens into a message ends, either because the source was exhausted,
+   * failed, or was cancelled.
+   *
+   * @param tokens the number of tokens appended to the message
+   * @param nanos the duration of the stream, in nanoseconds
+   */
+  default void streamCompleted(int tokens, long nanos) {}
+
+  /**
+   * Called before the message operations queued from other threads are applied.
+   *
+   * @param depth the number of pending operations
+   */
+  default void queueDrained(int depth) {}
+
+}
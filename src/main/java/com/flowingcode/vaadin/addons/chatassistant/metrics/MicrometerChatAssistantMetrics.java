@@ -0,0 +1,143 @@
+/*-
+ * #%L
+ * Chat Assistant Add-on
+ * %%
+ * Copyright (C) 2023 - 2026 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.chatassistant.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Metrics that are reported to a Micrometer {@link MeterRegistry}. Micrometer is an optional
+ * dependency of this add-on, which must be provided by the application in order to use this class.
+ *
+ * <p>The registry is not serialized: after deserialization, metrics are reported to
+ * {@link Metrics#globalRegistry}. The same instance can be shared by the chat assistants of all the
+ * sessions.
+ */
+@SuppressWarnings("serial")
+public class MicrometerChatAssistantMetrics implements ChatAssistantMetrics {
+
+  private static final String PREFIX = "chat.assistant.";
+
+  private final String[] tags;
+  private transient MeterRegistry registry;
+
+  private transient Counter sent;
+  private transient Counter updated;
+  private transient Counter itemRefreshes;
+  private transient Counter listRefreshes;
+  private transient Timer fetchTime;
+  private transient DistributionSummary fetchSize;
+  private transient DistributionSummary contentPushed;
+  private transient Timer streamTime;
+  private transient DistributionSummary streamTokens;
+  private transient DistributionSummary queueDepth;
+
+  /**
+   * Creates metrics reported to the global registry.
+   *
+   * @param tags the tags of the meters, as key/value pairs
+   */
+  public MicrometerChatAssistantMetrics(String... tags) {
+    this(Metrics.globalRegistry, tags);
+  }
+
+  /**
+   * Creates metrics reported to the given registry.
+   *
+   * @param registry the registry
+   * @param tags the tags of the meters, as key/value pairs
+   */
+  public MicrometerChatAssistantMetrics(MeterRegistry registry, String... tags) {
+    this.tags = tags.clone();
+    this.registry = registry;
+    registerMeters();
+  }
+
+  private void registerMeters() {
+    Tags tags = Tags.of(this.tags);
+    sent = Counter.builder(PREFIX + "messages.sent").tags(tags).register(registry);
+    updated = Counter.builder(PREFIX + "messages.updated").tags(tags).register(registry);
+    itemRefreshes = Counter.builder(PREFIX + "refreshes").tags(tags).tag("scope", "item")
+        .register(registry);
+    listRefreshes = Counter.builder(PREFIX + "refreshes").tags(tags).tag("scope", "all")
+        .register(registry);
+    fetchTime = Timer.builder(PREFIX + "fetch").tags(tags).register(registry);
+    fetchSize = DistributionSummary.builder(PREFIX + "fetch.size").tags(tags)
+        .baseUnit("messages").register(registry);
+    contentPushed = DistributionSummary.builder(PREFIX + "content.pushed").tags(tags)
+        .baseUnit("characters").register(registry);
+    streamTime = Timer.builder(PREFIX + "stream").tags(tags).register(registry);
+    streamTokens = DistributionSummary.builder(PREFIX + "stream.tokens").tags(tags)
+        .baseUnit("tokens").register(registry);
+    queueDepth = DistributionSummary.builder(PREFIX + "queue.depth").tags(tags)
+        .baseUnit("operations").register(registry);
+  }
+
+  private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+    in.defaultReadObject();
+    registry = Metrics.globalRegistry;
+    registerMeters();
+  }
+
+  @Override
+  public void messageSent() {
+    sent.increment();
+  }
+
+  @Override
+  public void messageUpdated() {
+    updated.increment();
+  }
+
+  @Override
+  public void refreshed(boolean all) {
+    (all ? listRefreshes : itemRefreshes).increment();
+  }
+
+  @Override
+  public void fetched(int count, long nanos) {
+    fetchTime.record(nanos, TimeUnit.NANOSECONDS);
+    fetchSize.record(count);
+  }
+
+  @Override
+  public void contentPushed(int length) {
+    contentPushed.record(length);
+  }
+
+  @Override
+  public void streamCompleted(int tokens, long nanos) {
+    streamTime.record(nanos, TimeUnit.NANOSECONDS);
+    streamTokens.record(tokens);
+  }
+
+  @Override
+  public void queueDrained(int depth) {
+    queueDepth.record(depth);
+  }
+
+}
@@ -19,9 +19,21 @@
  */
 package com.flowingcode.vaadin.addons.chatassistant.model;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import lombok.AccessLevel;
 import lombok.Builder;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
@@ -31,6 +43,16 @@ import lombok.experimental.SuperBuilder;
 /**
  * Class that represents a chat message
  *
+ * <p>The message is stored in a compact form: the sender name and avatar are kept in a
+ * {@link Sender} that can be shared by all the messages of a conversation, the message time is
+ * kept as primitive epoch seconds and nanoseconds, and the content of completed messages can be
+ * compressed with {@link #compressContent(int)}.
+ *
+ * <p>The serialized form of a message is also compact: the fields are written as a bit set of
+ * flags, the raw bits of the id, the epoch second and nanoseconds of the message time, and the
+ * content as length-prefixed UTF-8 (or compressed) bytes. Senders are written as objects, so that
+ * a sender shared by several messages is written only once per stream.
+ *
  * @author mmlopez
  */
 @SuppressWarnings("serial")
@@ -40,13 +62,305 @@ import lombok.experimental.SuperBuilder;
 @EqualsAndHashCode(of = "id")
 public class Message implements Serializable {
 
+  private static final long NO_TIME = Long.MIN_VALUE;
+
+  private static final int HAS_ID = 1;
+  private static final int HAS_CONTENT = 1 << 1;
+  private static final int COMPRESSED = 1 << 2;
+  private static final int LOADING = 1 << 3;
+  private static final int HAS_SENDER = 1 << 4;
+  private static final int HAS_TIME = 1 << 5;
+
+  private static volatile MessageIdGenerator idGenerator = MessageIdGenerator.random();
+
   @Builder.Default
-  private UUID id = UUID.randomUUID();
+  private transient UUID id = idGenerator.generate();
   @Builder.Default
-  private String content = "";
-  private boolean loading;
-  private String name;
-  private String avatar;
-  private LocalDateTime messageTime;
-  
+  @Getter(AccessLevel.NONE)
+  @Setter(AccessLevel.NONE)
+  private transient String content = "";
+  @Getter(AccessLevel.NONE)
+  @Setter(AccessLevel.NONE)
+  private transient byte[] compressedContent;
+  @Getter(AccessLevel.NONE)
+  @Setter(AccessLevel.NONE)
+  private transient int compressedLength;
+  private transient boolean loading;
+  private transient Sender sender;
+  @Getter(AccessLevel.NONE)
+  @Setter(AccessLevel.NONE)
+  private transient long epochSecond;
+  @Getter(AccessLevel.NONE)
+  @Setter(AccessLevel.NONE)
+  private transient int nano;
+
+  /** Builder of messages, which also accepts the sender name and avatar separately. */
+  public abstract static class MessageBuilder<C extends Message, B extends MessageBuilder<C, B>> {
+
+    // The internal representation is not exposed by the builder
+    private byte[] compressedContent;
+    private int compressedLength;
+    private long epochSecond = NO_TIME;
+    private int nano;
+
+    /** Sets the sender name, keeping the avatar. */
+    public B name(String name) {
+      return sender(Sender.of(name, sender != null ? sender.getAvatar() : null));
+    }
+
+    /** Sets the sender avatar, keeping the name. */
+    public B avatar(String avatar) {
+      return sender(Sender.of(sender != null ? sender.getName() : null, avatar));
+    }
+
+    /** Sets the message time. */
+    public B messageTime(LocalDateTime messageTime) {
+      epochSecond = toEpochSecond(messageTime);
+      nano = messageTime != null ? messageTime.getNano() : 0;
+      return self();
+    }
+
+    @SuppressWarnings("unused")
+    private B compressedContent(byte[] compressedContent) {
+      this.compressedContent = compressedContent;
+      return self();
+    }
+
+    @SuppressWarnings("unused")
+    private B compressedLength(int compressedLength) {
+      this.compressedLength = compressedLength;
+      return self();
+    }
+
+    @SuppressWarnings("unused")
+    private B epochSecond(long epochSecond) {
+      this.epochSecond = epochSecond;
+      return self();
+    }
+
+    @SuppressWarnings("unused")
+    private B nano(int nano) {
+      this.nano = nano;
+      return self();
+    }
+  }
+
+  /**
+   * Sets the generator of the ids of the messages created from now on. By default, ids are random
+   * UUIDs. Use {@link MessageIdGenerator#timeOrdered()} to generate ids that can be sorted by
+   * creation time without contention on a shared random source.
+   *
+   * @param idGenerator the id generator
+   */
+  public static void setIdGenerator(MessageIdGenerator idGenerator) {
+    Message.idGenerator = Objects.requireNonNull(idGenerator, "Id generator cannot be null");
+  }
+
+  /** Returns the generator of the ids of new messages. */
+  public static MessageIdGenerator getIdGenerator() {
+    return idGenerator;
+  }
+
+  /** Returns the message content. */
+  public String getContent() {
+    return compressedContent != null ? decompress(compressedContent) : content;
+  }
+
+  /**
+   * Returns the length of the message content, without decompressing it if it is compressed.
+   *
+   * @return the length of the content, or 0 if there is no content
+   */
+  public int getContentLength() {
+    if (compressedContent != null) {
+      return compressedLength;
+    }
+    String content = getContent();
+    return content != null ? content.length() : 0;
+  }
+
+  /** Sets the message content, discarding any compressed content. */
+  public void setContent(String content) {
+    this.content = content;
+    this.compressedContent = null;
+  }
+
+  /**
+   * Compresses the content of this message, if it is not loading and its content has at least the
+   * given length. The content is kept as compressed UTF-8 bytes until it is set again.
+   *
+   * @param minLength the minimum length of the content to be compressed
+   * @return true if the content was compressed
+   */
+  public boolean compressContent(int minLength) {
+    if (loading || content == null || content.length() < minLength) {
+      return false;
+    }
+    compressedContent = compress(content);
+    compressedLength = content.length();
+    content = null;
+    return true;
+  }
+
+  /** Returns whether the content of this message is compressed. */
+  public boolean isContentCompressed() {
+    return compressedContent != null;
+  }
+
+  /** Returns the sender name. */
+  public String getName() {
+    return sender != null ? sender.getName() : null;
+  }
+
+  /** Sets the sender name, keeping the avatar. */
+  public void setName(String name) {
+    sender = Sender.of(name, getAvatar());
+  }
+
+  /** Returns the sender avatar. */
+  public String getAvatar() {
+    return sender != null ? sender.getAvatar() : null;
+  }
+
+  /** Sets the sender avatar, keeping the name. */
+  public void setAvatar(String avatar) {
+    sender = Sender.of(getName(), avatar);
+  }
+
+  /** Returns the message time. */
+  public LocalDateTime getMessageTime() {
+    if (epochSecond == NO_TIME) {
+      return null;
+    }
+    return LocalDateTime.ofEpochSecond(epochSecond, nano, ZoneOffset.UTC);
+  }
+
+  /** Sets the message time. */
+  public void setMessageTime(LocalDateTime messageTime) {
+    epochSecond = toEpochSecond(messageTime);
+    nano = messageTime != null ? messageTime.getNano() : 0;
+  }
+
+  private static long toEpochSecond(LocalDateTime messageTime) {
+    return messageTime != null ? messageTime.toEpochSecond(ZoneOffset.UTC) : NO_TIME;
+  }
+
+  private void writeObject(ObjectOutputStream out) throws IOException {
+    out.defaultWriteObject();
+    int flags = (id != null ? HAS_ID : 0)
+        | (compressedContent != null ? HAS_CONTENT | COMPRESSED : content != null ? HAS_CONTENT : 0)
+        | (loading ? LOADING : 0)
+        | (sender != null ? HAS_SENDER : 0)
+        | (epochSecond != NO_TIME ? HAS_TIME : 0);
+    out.writeByte(flags);
+    if (id != null) {
+      out.writeLong(id.getMostSignificantBits());
+      out.writeLong(id.getLeastSignificantBits());
+    }
+    if (epochSecond != NO_TIME) {
+      out.writeLong(epochSecond);
+      writeVarInt(out, nano);
+    }
+    if ((flags & HAS_CONTENT) != 0) {
+      byte[] bytes = compressedContent != null ? compressedContent
+          : content.getBytes(StandardCharsets.UTF_8);
+      writeVarInt(out, bytes.length);
+      out.write(bytes);
+      if (compressedContent != null) {
+        writeVarInt(out, compressedLength);
+      }
+    }
+    if (sender != null) {
+      out.writeObject(sender);
+    }
+  }
+
+  private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+    in.defaultReadObject();
+    int flags = in.readUnsignedByte();
+    if ((flags & HAS_ID) != 0) {
+      id = new UUID(in.readLong(), in.readLong());
+    }
+    if ((flags & HAS_TIME) != 0) {
+      epochSecond = in.readLong();
+      nano = readVarInt(in);
+    } else {
+      epochSecond = NO_TIME;
+    }
+    if ((flags & HAS_CONTENT) != 0) {
+      byte[] bytes = new byte[readVarInt(in)];
+      in.readFully(bytes);
+      if ((flags & COMPRESSED) != 0) {
+        compressedContent = bytes;
+        compressedLength = readVarInt(in);
+      } else {
+        content = new String(bytes, StandardCharsets.UTF_8);
+      }
+    }
+    loading = (flags & LOADING) != 0;
+    if ((flags & HAS_SENDER) != 0) {
+      sender = (Sender) in.readObject();
+    }
+  }
+
+  private static void writeVarInt(ObjectOutputStream out, int value) throws IOException {
+    while ((value & ~0x7F) != 0) {
+      out.writeByte((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    out.writeByte(value);
+  }
+
+  private static int readVarInt(ObjectInputStream in) throws IOException {
+    int value = 0;
+    for (int shift = 0; shift < 32; shift += 7) {
+      int b = in.readUnsignedByte();
+      value |= (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        if (value < 0) {
+          break;
+        }
+        return value;
+      }
+    }
+    throw new IOException("Malformed length");
+  }
+
+  private static byte[] compress(String content) {
+    Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    try {
+      deflater.setInput(content.getBytes(StandardCharsets.UTF_8));
+      deflater.finish();
+      ByteArrayOutputStream out = new ByteArrayOutputStream(content.length() / 2);
+      byte[] buffer = new byte[4096];
+      while (!deflater.finished()) {
+        out.write(buffer, 0, deflater.deflate(buffer));
+      }
+      return out.toByteArray();
+    } finally {
+      deflater.end();
+    }
+  }
+
+  private static String decompress(byte[] data) {
+    Inflater inflater = new Inflater();
+    try {
+      inflater.setInput(data);
+      ByteArrayOutputStream out = new ByteArrayOutputStream(data.length * 3);
+      byte[] buffer = new byte[4096];
+      while (!inflater.finished()) {
+        int length = inflater.inflate(buffer);
+        if (length == 0 && inflater.needsInput()) {
+          throw new UncheckedIOException(new IOException("Truncated compressed content"));
+        }
+        out.write(buffer, 0, length);
+      }
+      return out.toString(StandardCharsets.UTF_8);
+    } catch (DataFormatException e) {
+      throw new UncheckedIOException(new IOException(e));
+    } finally {
+      inflater.end();
+    }
+  }
+
 }
@@ -0,0 +1,51 @@
+/*-
+ * #%L
+ * Chat Assistant Add-on
+ * %%
+ * Copyright (C) 2023 - 2026 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.chatassistant.model;
+
+import java.io.Serializable;
+import java.util.UUID;
+
+/**
+ * Generates the ids of new messages.
+ *
+ * @see Message#setIdGenerator(MessageIdGenerator)
+ */
+@FunctionalInterface
+public interface MessageIdGenerator extends Serializable {
+
+  /** Returns a new message id. */
+  UUID generate();
+
+  /** Returns a generator of random (version 4) UUIDs. */
+  static MessageIdGenerator random() {
+    return UUID::randomUUID;
+  }
+
+  /**
+   * Returns a generator of time-ordered (version 7) UUIDs. The generated ids start with a
+   * millisecond timestamp followed by a counter, so that ids generated later compare greater than
+   * ids generated before, even within the same millisecond. The generator does not lock, and its
+   * random bits come from {@link java.util.concurrent.ThreadLocalRandom}.
+   */
+  static MessageIdGenerator timeOrdered() {
+    return TimeOrderedIdGenerator.INSTANCE;
+  }
+
+}
@@ -0,0 +1,47 @@
+/*-
+ * #%L
+ * Chat Assistant Add-on
+ * %%
+ * Copyright (C) 2023 - 2026 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.chatassistant.model;
+
+import java.io.Serializable;
+import lombok.Value;
+
+/**
+ * Immutable name and avatar of the sender of a message. Messages of the same conversation usually
+ * share a few senders, which can be interned so that all the messages refer to the same instance.
+ */
+@SuppressWarnings("serial")
+@Value
+public class Sender implements Serializable {
+
+  String name;
+  String avatar;
+
+  /**
+   * Returns the sender with the given name and avatar.
+   *
+   * @param name the sender name
+   * @param avatar the sender avatar
+   * @return the sender, or null if both the name and the avatar are null
+   */
+  public static Sender of(String name, String avatar) {
+    return name == null && avatar == null ? null : new Sender(name, avatar);
+  }
+
+}
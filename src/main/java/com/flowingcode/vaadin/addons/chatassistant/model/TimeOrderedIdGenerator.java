@@ -0,0 +1,51 @@
+/*-
+ * #%L
+ * Chat Assistant Add-on
+ * %%
+ * Copyright (C) 2023 - 2026 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.chatassistant.model;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generator of version 7 UUIDs. The 48-bit millisecond timestamp and the 12-bit counter that
+ * follows it are taken from a single atomic state, which only moves forward.
+ */
+enum TimeOrderedIdGenerator implements MessageIdGenerator {
+
+  INSTANCE;
+
+  private static final int COUNTER_BITS = 12;
+
+  /** Timestamp in milliseconds, shifted left by the counter bits, plus the counter. */
+  private final AtomicLong state = new AtomicLong();
+
+  @Override
+  public UUID generate() {
+    long now = System.currentTimeMillis() << COUNTER_BITS;
+    long next = state.updateAndGet(last -> Math.max(now, last + 1));
+    long timestamp = next >>> COUNTER_BITS;
+    long counter = next & ((1 << COUNTER_BITS) - 1);
+    long mostSigBits = (timestamp << 16) | 0x7000L | counter;
+    long leastSigBits = (ThreadLocalRandom.current().nextLong() & 0x3FFFFFFFFFFFFFFFL)
+        | 0x8000000000000000L;
+    return new UUID(mostSigBits, leastSigBits);
+  }
+
+}
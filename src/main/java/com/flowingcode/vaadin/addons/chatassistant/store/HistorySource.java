@@ -0,0 +1,52 @@
+/*-
+ * #%L
+ * Chat Assistant Add-on
+ * %%
+ * Copyright (C) 2023 - 2026 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.chatassistant.store;
+
+import com.flowingcode.vaadin.addons.chatassistant.model.Message;
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Source the history of a conversation is loaded from, when the history is not kept in the
+ * session.
+ *
+ * <p>A history source can be set with
+ * {@link com.flowingcode.vaadin.addons.chatassistant.ChatAssistant#setDetachedHistory(String,
+ * HistorySource)}, so that the chat assistant keeps only the conversation key in its serialized
+ * form, and loads the messages again after the session is deserialized. The source is serialized
+ * together with the chat assistant, so it should hold no more state than required for reaching the
+ * persisted conversations.
+ *
+ * @param <T> the type of the messages
+ */
+@FunctionalInterface
+public interface HistorySource<T extends Message> extends Serializable {
+
+  /**
+   * Loads the messages of a conversation, in the order they were sent. The returned messages must
+   * include all the messages sent through the chat assistant, since messages held in memory are
+   * discarded when the session is serialized.
+   *
+   * @param conversationKey the key of the conversation
+   * @return the messages of the conversation
+   */
+  List<T> load(String conversationKey);
+
+}
@@ -0,0 +1,305 @@
+/*-
+ * #%L
+ * Chat Assistant Add-on
+ * %%
+ * Copyright (C) 2023 - 2026 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.chatassistant.store;
+
+import com.flowingcode.vaadin.addons.chatassistant.model.Message;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Message store that writes messages to an append-only log made of memory-mapped segment files.
+ *
+ * <p>Each record of the log holds a version of a message: appending a message writes its first
+ * version, and updating it writes a new version that supersedes the previous ones. An offset index,
+ * which maps the index of each message to the position of its latest version, is kept in memory
+ * and rebuilt from the log when the store is opened. The messages themselves live off-heap, so that
+ * reading a page of messages decodes it straight from the mapped segments, and the conversation
+ * survives restarts of the application.
+ *
+ * <p>Every version that is written holds a full copy of the message, and superseded versions are
+ * never reclaimed. In order to keep the cost of streaming an answer linear in its length, updates
+ * are coalesced: the latest update is kept in memory, and written only when another message is
+ * appended or updated, or when the store is flushed, closed or serialized. Until then, the update is
+ * not stored on disk, and it is lost if the application stops abruptly.
+ *
+ * <p>The store is opened lazily, and it is opened again after being closed or deserialized. A
+ * directory must not be used by more than one store at the same time.
+ *
+ * @param <T> the type of the messages
+ */
+@SuppressWarnings("serial")
+public class MappedMessageStore<T extends Message> implements MessageStore<T>, Closeable {
+
+  /** The default size of the segment files, in bytes. */
+  public static final int DEFAULT_SEGMENT_SIZE = 16 * 1024 * 1024;
+
+  /** Record size, message index and message id (most and least significant bits). */
+  private static final int HEADER_SIZE = 4 + 4 + 8 + 8;
+
+  private static final String SEGMENT_PREFIX = "segment-";
+  private static final String SEGMENT_SUFFIX = ".log";
+
+  private final String directory;
+  private final MessageCodec<T> codec;
+  private final int segmentSize;
+
+  private transient List<MappedByteBuffer> segments;
+  private transient long[] positions;
+  private transient int size;
+  private transient int writeOffset;
+  private transient T pending;
+  private transient int pendingIndex;
+
+  /**
+   * Creates a store that writes to the given directory, encoding messages with Java serialization.
+   *
+   * @param directory the directory of the segment files
+   */
+  public MappedMessageStore(Path directory) {
+    this(directory, MessageCodec.javaSerialization(), DEFAULT_SEGMENT_SIZE);
+  }
+
+  /**
+   * Creates a store that writes to the given directory.
+   *
+   * @param directory the directory of the segment files
+   * @param codec the codec used for encoding messages
+   * @param segmentSize the size of the segment files, in bytes
+   */
+  public MappedMessageStore(Path directory, MessageCodec<T> codec, int segmentSize) {
+    if (segmentSize <= HEADER_SIZE) {
+      throw new IllegalArgumentException("Segment size must be greater than " + HEADER_SIZE);
+    }
+    this.directory = directory.toAbsolutePath().toString();
+    this.codec = Objects.requireNonNull(codec, "Codec cannot be null");
+    this.segmentSize = segmentSize;
+  }
+
+  @Override
+  public synchronized void append(T message) {
+    ensureOpen();
+    writePending();
+    if (size == positions.length) {
+      positions = Arrays.copyOf(positions, Math.max(16, size * 2));
+    }
+    positions[size] = write(size, message);
+    size++;
+  }
+
+  @Override
+  public synchronized void update(T message) {
+    ensureOpen();
+    UUID id = Objects.requireNonNull(message.getId(), "Message id cannot be null");
+    for (int i = size - 1; i >= 0; i--) {
+      MappedByteBuffer segment = segment(positions[i]);
+      int offset = offset(positions[i]);
+      if (segment.getLong(offset + 8) == id.getMostSignificantBits()
+          && segment.getLong(offset + 16) == id.getLeastSignificantBits()) {
+        if (pending != null && pendingIndex != i) {
+          writePending();
+        }
+        pending = message;
+        pendingIndex = i;
+        return;
+      }
+    }
+    throw new IllegalArgumentException("Message " + id + " was not appended to this store");
+  }
+
+  @Override
+  public synchronized int size() {
+    ensureOpen();
+    return size;
+  }
+
+  @Override
+  public synchronized Stream<T> fetch(int offset, int limit) {
+    ensureOpen();
+    int from = Math.min(offset, size);
+    int to = (int) Math.min(size, (long) offset + limit);
+    List<T> page = new ArrayList<>(to - from);
+    for (int i = from; i < to; i++) {
+      page.add(pending != null && pendingIndex == i ? pending : read(positions[i]));
+    }
+    return page.stream();
+  }
+
+  /** Forces any change written to the segment files to be stored on disk. */
+  public synchronized void flush() {
+    if (segments != null) {
+      writePending();
+      segments.forEach(MappedByteBuffer::force);
+    }
+  }
+
+  /** Flushes and releases the segment files. */
+  @Override
+  public synchronized void close() {
+    flush();
+    segments = null;
+    positions = null;
+    size = 0;
+    writeOffset = 0;
+  }
+
+  /** Writes the update that was kept in memory, if any. */
+  private void writePending() {
+    if (pending != null) {
+      T message = pending;
+      pending = null;
+      positions[pendingIndex] = write(pendingIndex, message);
+    }
+  }
+
+  private synchronized void writeObject(ObjectOutputStream out) throws IOException {
+    if (segments != null) {
+      writePending();
+    }
+    out.defaultWriteObject();
+  }
+
+  private void ensureOpen() {
+    if (segments != null) {
+      return;
+    }
+    segments = new ArrayList<>();
+    positions = new long[16];
+    size = 0;
+    writeOffset = 0;
+    try {
+      Path path = Paths.get(directory);
+      Files.createDirectories(path);
+      for (int number = 0;; number++) {
+        Path file = path.resolve(segmentName(number));
+        if (!Files.exists(file)) {
+          break;
+        }
+        segments.add(map(file, Files.size(file)));
+        writeOffset = scan(number);
+      }
+    } catch (IOException e) {
+      segments = null;
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /** Rebuilds the index entries of the records in a segment, and returns the end of its data. */
+  private int scan(int number) {
+    MappedByteBuffer segment = segments.get(number);
+    int offset = 0;
+    while (offset + HEADER_SIZE <= segment.capacity()) {
+      int recordSize = segment.getInt(offset);
+      int index = segment.getInt(offset + 4);
+      if (recordSize < HEADER_SIZE || offset + recordSize > segment.capacity() || index > size) {
+        // end of data, or an incomplete record
+        break;
+      }
+      if (index == size) {
+        if (size == positions.length) {
+          positions = Arrays.copyOf(positions, size * 2);
+        }
+        size++;
+      }
+      positions[index] = position(number, offset);
+      offset += recordSize;
+    }
+    return offset;
+  }
+
+  private long write(int index, T message) {
+    byte[] payload = codec.encode(message);
+    int recordSize = HEADER_SIZE + payload.length;
+    if (segments.isEmpty() || writeOffset + recordSize > last().capacity()) {
+      newSegment(Math.max(segmentSize, recordSize));
+    }
+    MappedByteBuffer segment = last();
+    UUID id = message.getId();
+    segment.put(writeOffset + HEADER_SIZE, payload);
+    segment.putInt(writeOffset + 4, index);
+    segment.putLong(writeOffset + 8, id != null ? id.getMostSignificantBits() : 0);
+    segment.putLong(writeOffset + 16, id != null ? id.getLeastSignificantBits() : 0);
+    // the record size is written last, so that an incomplete record is never read
+    segment.putInt(writeOffset, recordSize);
+    long position = position(segments.size() - 1, writeOffset);
+    writeOffset += recordSize;
+    return position;
+  }
+
+  private T read(long position) {
+    MappedByteBuffer segment = segment(position);
+    int offset = offset(position);
+    byte[] payload = new byte[segment.getInt(offset) - HEADER_SIZE];
+    segment.get(offset + HEADER_SIZE, payload);
+    return codec.decode(payload);
+  }
+
+  private void newSegment(int capacity) {
+    Path file = Paths.get(directory).resolve(segmentName(segments.size()));
+    try {
+      segments.add(map(file, capacity));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    writeOffset = 0;
+  }
+
+  private static MappedByteBuffer map(Path file, long capacity) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+        StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      return channel.map(MapMode.READ_WRITE, 0, capacity);
+    }
+  }
+
+  private MappedByteBuffer last() {
+    return segments.get(segments.size() - 1);
+  }
+
+  private MappedByteBuffer segment(long position) {
+    return segments.get((int) (position >>> 32));
+  }
+
+  private static int offset(long position) {
+    return (int) position;
+  }
+
+  private static long position(int segment, int offset) {
+    return ((long) segment << 32) | offset;
+  }
+
+  private static String segmentName(int number) {
+    return String.format("%s%010d%s", SEGMENT_PREFIX, number, SEGMENT_SUFFIX);
+  }
+
+}
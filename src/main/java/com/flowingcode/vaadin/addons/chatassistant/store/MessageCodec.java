@@ -0,0 +1,43 @@
+/*-
+ * #%L
+ * Chat Assistant Add-on
+ * %%
+ * Copyright (C) 2023 - 2026 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.chatassistant.store;
+
+import com.flowingcode.vaadin.addons.chatassistant.model.Message;
+import java.io.Serializable;
+
+/**
+ * Converts messages to and from the binary records written by a {@link MappedMessageStore}.
+ *
+ * @param <T> the type of the messages
+ */
+public interface MessageCodec<T extends Message> extends Serializable {
+
+  /** Encodes the given message. */
+  byte[] encode(T message);
+
+  /** Decodes a message previously encoded by this codec. */
+  T decode(byte[] data);
+
+  /** Returns a codec that relies on Java serialization. */
+  static <T extends Message> MessageCodec<T> javaSerialization() {
+    return new JavaSerializationCodec<>();
+  }
+
+}
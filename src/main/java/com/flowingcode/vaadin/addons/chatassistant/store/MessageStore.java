@@ -0,0 +1,64 @@
+/*-
+ * #%L
+ * Chat Assistant Add-on
+ * %%
+ * Copyright (C) 2023 - 2026 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.chatassistant.store;
+
+import com.flowingcode.vaadin.addons.chatassistant.model.Message;
+import java.io.Serializable;
+import java.util.stream.Stream;
+
+/**
+ * Storage of the messages of a conversation, which can be read through offset/limit queries.
+ *
+ * <p>A message store can be set with
+ * {@link com.flowingcode.vaadin.addons.chatassistant.ChatAssistant#setMessageStore(MessageStore)},
+ * so that the chat assistant reads the messages from the store instead of keeping them in memory.
+ *
+ * @param <T> the type of the messages
+ */
+public interface MessageStore<T extends Message> extends Serializable {
+
+  /**
+   * Appends a message at the end of the conversation.
+   *
+   * @param message the message to append
+   */
+  void append(T message);
+
+  /**
+   * Replaces a previously appended message with the given one. Messages are matched by their id.
+   *
+   * @param message the updated message
+   * @throws IllegalArgumentException if the message was not appended to this store
+   */
+  void update(T message);
+
+  /** Returns the number of messages in the store. */
+  int size();
+
+  /**
+   * Fetches a page of messages, in the order they were appended.
+   *
+   * @param offset the index of the first message to fetch
+   * @param limit the maximum number of messages to fetch
+   * @return the messages in the requested range
+   */
+  Stream<T> fetch(int offset, int limit);
+
+}
@@ -17,137 +17,208 @@
  * limitations under the License.
  * #L%
  */
-window.fcChatAssistantMovement = (root, item, container, fab, marginRaw, sensitivityRaw) => {
-    // Prevent duplicate initialization
-    const guard = `__fcChatAssistantMovement`;
-    if (item[guard]) {
-        return;
-    }
-    item[guard] = true;
-    const margin = parseFloat(marginRaw);
-    const sensitivity = parseFloat(sensitivityRaw);
-    const sizeTransition = 'transform 0.2s ease';
-    const snapTransition = 'all 0.5s cubic-bezier(0.175, 0.885, 0.32, 1.275)';
-    const position = { x: margin, y: margin };
-    const initialPosition = { x: margin, y: margin };
-
-    let screenWidth = window.innerWidth;
-    let screenHeight = window.innerHeight;
-    let isDragging = false;
-
-    item.style.transition = sizeTransition;
-
-    const resizeHandler = (_) => {
-        screenWidth = window.innerWidth;
-        screenHeight = window.innerHeight;
-        
-        // Adjust container dimensions to fit within screen bounds
-        if (container) {
-            const rect = container.getBoundingClientRect();
-            let widthAdjustment = 0;
-            let heightAdjustment = 0;
-            if (rect.left < 0) {
-                widthAdjustment = Math.abs(rect.left);
-            }
-            if (rect.right > screenWidth) {
-                widthAdjustment = Math.max(widthAdjustment, rect.right - screenWidth);
-            }
-            if (rect.top < 0) {
-                heightAdjustment = Math.abs(rect.top);
-            }
-            if (rect.bottom > screenHeight) {
-                heightAdjustment = Math.max(heightAdjustment, rect.bottom - screenHeight);
-            }
-            // Apply adjustments
-            if (widthAdjustment > 0) {
-                const minWidth = parseFloat(container.style.minWidth) || 0;
-                const newWidth = Math.max(minWidth, rect.width - widthAdjustment);
-                container.style.width = newWidth + 'px';
-            }
-            if (heightAdjustment > 0) {
-                const minHeight = parseFloat(container.style.minHeight) || 0;
-                const newHeight = Math.max(minHeight, rect.height - heightAdjustment);
-                container.style.height = newHeight + 'px';
-            }
-        }
-        
-        // Reposition the item to ensure it stays within the new screen bounds
-        snapToBoundary();
-    };
-    window.addEventListener("resize", resizeHandler);
-
-    const origDisconnectedCallback = root.disconnectedCallback?.bind(root);
-    root.disconnectedCallback = () => {
-        window.removeEventListener("resize", resizeHandler);
-        origDisconnectedCallback?.();
-    };
+
+const SIZE_TRANSITION = 'transform 0.2s ease';
+const SNAP_TRANSITION = 'all 0.5s cubic-bezier(0.175, 0.885, 0.32, 1.275)';
+const VIEWPORT_DEBOUNCE = 100;
+
+// Viewport changes are handled by a single listener shared by all the assistants on the page
+const viewportListeners = new Set();
+let viewportTimeout = 0;
+
+function onViewportResize() {
+    clearTimeout(viewportTimeout);
+    viewportTimeout = setTimeout(() => {
+        viewportTimeout = 0;
+        // Read the layout of all the assistants before writing to any of them
+        const writes = [...viewportListeners].map(listener => listener());
+        writes.forEach(write => write?.());
+    }, VIEWPORT_DEBOUNCE);
+}
+
+/**
+ * Registers a listener that is called once the viewport has stopped changing size. The listener
+ * must only read the layout, and may return a function that writes the changes.
+ */
+export function observeViewport(listener) {
+    if (!viewportListeners.size) {
+        window.addEventListener('resize', onViewportResize);
+    }
+    viewportListeners.add(listener);
+}
+
+/** Removes a listener registered with observeViewport. */
+export function unobserveViewport(listener) {
+    viewportListeners.delete(listener);
+    if (!viewportListeners.size) {
+        window.removeEventListener('resize', onViewportResize);
+        clearTimeout(viewportTimeout);
+        viewportTimeout = 0;
+    }
+}
+
+/**
+ * Dragging of the floating action button, which snaps back within the screen and margin bounds.
+ * An instance is owned by each chat assistant element, which forwards the pointer events of the
+ * button and the viewport changes.
+ *
+ * While dragging, the button is moved through a transform, which is written at most once per
+ * animation frame and does not trigger layout. The position is committed when the drag ends.
+ */
+export class ChatAssistantMovement {
+
+    constructor(host) {
+        this.host = host;
+        this.position = null;
+        this.drag = null;
+        this.frame = 0;
+    }
+
+    get margin() {
+        return parseFloat(this.host.fabMargin);
+    }
+
+    get sensitivity() {
+        return parseFloat(this.host.dragSensitivity);
+    }
+
+    get item() {
+        return this.host.querySelector(':scope > .fc-chat-assistant-fab-wrapper');
+    }
+
+    get fab() {
+        return this.item?.querySelector('.fc-chat-assistant-fab');
+    }
+
+    get dragging() {
+        return this.drag !== null;
+    }
 
     // Update FAB position
-    function updatePosition() {
-        item.style.right = position.x + 'px';
-        item.style.bottom = position.y + 'px';
+    updatePosition() {
+        const item = this.item;
+        if (!item) return;
+        this.position ??= { x: this.margin, y: this.margin };
+        item.style.transition ||= SIZE_TRANSITION;
+        item.style.right = this.position.x + 'px';
+        item.style.bottom = this.position.y + 'px';
+    }
+
+    // Clamps the position within the screen and margin bounds, for a button of the given size
+    clamp(position, fabRect) {
+        const margin = this.margin;
+        const xMax = Math.max(margin, window.innerWidth - fabRect.width - margin);
+        const yMax = Math.max(margin, window.innerHeight - fabRect.height - margin);
+        position.x = Math.min(Math.max(position.x, margin), xMax);
+        position.y = Math.min(Math.max(position.y, margin), yMax);
     }
 
     // Ensure the item stays within the screen and margin bounds
-    function snapToBoundary() {
+    snapToBoundary() {
+        const fab = this.fab;
+        if (!fab) return;
+        this.position ??= { x: this.margin, y: this.margin };
         // Get current dimensions to account for transforms
-        const itemRect = fab.getBoundingClientRect();
-        
-        const xMax = Math.max(margin, screenWidth - itemRect.width - margin);
-        const yMax = Math.max(margin, screenHeight - itemRect.height - margin);
-        const x = position.x;
-        const y = position.y;
-        if (x < margin) position.x = margin;
-        if (x > xMax) position.x = xMax;
-        if (y < margin) position.y = margin;
-        if (y > yMax) position.y = yMax;
-        updatePosition();
-    }
-
-    // Determine if the pointer event should be treated as a click (no significant movement, based on sensitivity threshold)
-    function isClickOnlyEvent() {
-        const dx = Math.abs(position.x - initialPosition.x);
-        const dy = Math.abs(position.y - initialPosition.y);
-        return dx < sensitivity && dy < sensitivity;
-    }
-
-    item.addEventListener('pointerdown', (e) => {
-        isDragging = true;
-        fab.classList.add('dragging');
-        item.setPointerCapture(e.pointerId);
-        item.style.transition = sizeTransition;
-        initialPosition.x = position.x;
-        initialPosition.y = position.y;
-    });
-
-    item.addEventListener('pointermove', (e) => {
-        if (!isDragging) return;
-        const itemRect = fab.getBoundingClientRect();
-        // Calculate position from right and bottom edges
-        position.x = screenWidth - e.clientX - (itemRect.width / 2);
-        position.y = screenHeight - e.clientY - (itemRect.height / 2);
-        
-        updatePosition();
-    });
-
-    item.addEventListener('pointerup', (e) => stopDragging(e));
-    item.addEventListener('pointerleave', (e) => stopDragging(e));
-    item.addEventListener('pointercancel', (e) => stopDragging(e));
-
-    function stopDragging(e) {
-        if(isDragging) {
-            isDragging = false;
-            item.style.transition = snapTransition + ', ' + sizeTransition;
-            fab.classList.remove('dragging');
-            if (item.hasPointerCapture(e.pointerId)) {
-                item.releasePointerCapture(e.pointerId);
-            }
-            snapToBoundary();
-            if (isClickOnlyEvent()) {
-                root.$server?.onClick();
+        this.clamp(this.position, fab.getBoundingClientRect());
+        this.updatePosition();
+    }
+
+    /**
+     * Measures the chat window and the button after a viewport change, and returns a function
+     * that shrinks the chat window to fit within the screen and keeps the button within its bounds.
+     */
+    fitViewport(container) {
+        const fab = this.fab;
+        if (!fab || this.dragging) return null;
+        const fabRect = fab.getBoundingClientRect();
+        let width, height;
+        if (container?.isConnected) {
+            const rect = container.getBoundingClientRect();
+            const widthAdjustment = Math.max(0, -rect.left, rect.right - window.innerWidth);
+            const heightAdjustment = Math.max(0, -rect.top, rect.bottom - window.innerHeight);
+            if (widthAdjustment > 0 || heightAdjustment > 0) {
+                const computedStyle = window.getComputedStyle(container);
+                if (widthAdjustment > 0) {
+                    width = Math.max(parseFloat(computedStyle.minWidth) || 0, rect.width - widthAdjustment);
+                }
+                if (heightAdjustment > 0) {
+                    height = Math.max(parseFloat(computedStyle.minHeight) || 0, rect.height - heightAdjustment);
+                }
             }
         }
+        return () => {
+            if (width !== undefined) container.style.width = width + 'px';
+            if (height !== undefined) container.style.height = height + 'px';
+            this.position ??= { x: this.margin, y: this.margin };
+            this.clamp(this.position, fabRect);
+            this.updatePosition();
+        };
     }
 
-    updatePosition();
-};
+    start(e) {
+        const item = this.item;
+        this.position ??= { x: this.margin, y: this.margin };
+        this.drag = {
+            initialPosition: { ...this.position },
+            startX: e.clientX,
+            startY: e.clientY,
+            clientX: e.clientX,
+            clientY: e.clientY
+        };
+        this.fab.classList.add('dragging');
+        item.setPointerCapture(e.pointerId);
+        item.style.transition = 'none';
+        item.style.willChange = 'transform';
+    }
+
+    move(e) {
+        this.drag.clientX = e.clientX;
+        this.drag.clientY = e.clientY;
+        this.frame ||= window.requestAnimationFrame(() => {
+            this.frame = 0;
+            const { clientX, clientY, startX, startY } = this.drag;
+            this.item.style.transform = `translate(${clientX - startX}px, ${clientY - startY}px)`;
+        });
+    }
+
+    // Position (from the right and bottom edges) where the button was dragged to
+    pointerPosition(drag) {
+        return {
+            x: drag.initialPosition.x - (drag.clientX - drag.startX),
+            y: drag.initialPosition.y - (drag.clientY - drag.startY)
+        };
+    }
+
+    /** Stops dragging, and returns whether the pointer moved so little that it was a click. */
+    stop(e) {
+        const item = this.item;
+        const drag = this.drag;
+        if (this.frame) {
+            window.cancelAnimationFrame(this.frame);
+            this.frame = 0;
+        }
+        if (e.type === 'pointerup') {
+            drag.clientX = e.clientX;
+            drag.clientY = e.clientY;
+        }
+        this.drag = null;
+        this.fab?.classList.remove('dragging');
+        if (item.hasPointerCapture(e.pointerId)) {
+            item.releasePointerCapture(e.pointerId);
+        }
+        const position = this.pointerPosition(drag);
+        const click = Math.abs(position.x - drag.initialPosition.x) < this.sensitivity
+            && Math.abs(position.y - drag.initialPosition.y) < this.sensitivity;
+        item.style.transform = '';
+        if (!click) {
+            // Commit the dragged position without transition, so that only the snap is animated
+            this.position = position;
+            this.updatePosition();
+            void item.offsetWidth;
+        }
+        item.style.willChange = '';
+        item.style.transition = SNAP_TRANSITION + ', ' + SIZE_TRANSITION;
+        this.snapToBoundary();
+        return click;
+    }
+}
@@ -18,284 +18,157 @@
  * #L%
  */
 
-// Combined resize functionality for all directions
-window.fcChatAssistantResize = (item, container, popoverTag, sizeRaw, maxSizeRaw, direction) => {
-    // Prevent duplicate initialization
-    const guard = `__fcChatAssistantResize_${direction}`;
-    if (item[guard]) {
-        return;
+const RESIZE_CLASS = 'fc-chat-assistant-resize-';
+const POPOVER_CLASS = 'fc-chat-assistant-popover';
+const OVERLAY_TAG = 'VAADIN-POPOVER-OVERLAY';
+
+/**
+ * Resizing of the chat window through the resizers at its edges and corners. An instance is owned
+ * by each chat assistant element, which forwards the pointer events of its resizers.
+ *
+ * The layout of the window is read only once, when the drag starts. Pointer moves are coalesced
+ * into a single style write per animation frame, and the final size is reported to the server when
+ * the drag ends.
+ */
+export class ChatAssistantResize {
+
+    constructor(host) {
+        this.host = host;
+        this.drag = null;
+        this.frame = 0;
     }
-    item[guard] = true;
 
-    const size = parseFloat(sizeRaw);
-    const maxSize = parseFloat(maxSizeRaw);
-    const overlayTag = "vaadin-popover-overlay".toUpperCase();
+    /** Returns the direction of a resizer, or null if the element is not a resizer. */
+    static directionOf(element) {
+        const className = [...(element?.classList || [])].find(c => c.startsWith(RESIZE_CLASS));
+        return className ? className.substring(RESIZE_CLASS.length) : null;
+    }
 
-    let minWidth = 0;
-    let minHeight = 0;
-    let maxWidth = Infinity;
-    let maxHeight = Infinity;
-    let overlay;
-    let isDragging = false;
+    get maxSize() {
+        return parseFloat(this.host.maxResizerSize);
+    }
 
-    const directionConfig = {
-        'top': {
-            shouldDrag: () => overlay?.style?.bottom && !overlay?.style?.top,
-            handleResize: (e) => {
-                const offsetY = container.getBoundingClientRect().top - e.clientY;
-                const newHeight = offsetY + container.clientHeight;
-                if (newHeight >= minHeight && newHeight <= maxHeight) {
-                    container.style.height = newHeight + 'px';
-                }
-            },
-            setupDrag: () => {
-                item.style.height = maxSize + 'px';
-                item.style.marginTop = -(maxSize / 2) + 'px';
-            },
-            cleanupDrag: () => {
-                item.style.height = size + 'px';
-                item.style.marginTop = '';
-            }
-        },
-        'top-right': {
-            shouldDrag: () => {
-                const topRule = overlay?.style?.bottom && !overlay?.style?.top;
-                const rightRule = overlay?.style?.left && !overlay?.style?.right;
-                return topRule && rightRule;
-            },
-            handleResize: (e) => {
-                const offsetY = container.getBoundingClientRect().top - e.clientY;
-                const newHeight = offsetY + container.clientHeight;
-                if(newHeight >= minHeight && newHeight <= maxHeight) {
-                    container.style.height = newHeight + 'px';
-                }
-                const offsetX = e.clientX - container.getBoundingClientRect().right;
-                const newWidth = offsetX + container.clientWidth;
-                if (newWidth >= minWidth && newWidth <= maxWidth) {
-                    container.style.width = newWidth + 'px';
-                }
-            },
-            setupDrag: () => {
-                item.style.height = maxSize + 'px';
-                item.style.width = maxSize + 'px';
-                item.style.marginTop = -(maxSize / 2) + 'px';
-                item.style.marginRight = -(maxSize / 2) + 'px';
-            },
-            cleanupDrag: () => {
-                item.style.height = size + 'px';
-                item.style.width = size + 'px';
-                item.style.marginTop = '';
-                item.style.marginRight = '';
-            }
-        },
-        'right': {
-            shouldDrag: () => overlay?.style?.left && !overlay?.style?.right,
-            handleResize: (e) => {
-                const offsetX = e.clientX - container.getBoundingClientRect().right;
-                const newWidth = offsetX + container.clientWidth;
-                if (newWidth >= minWidth && newWidth <= maxWidth) {
-                    container.style.width = newWidth + 'px';
-                }
-            },
-            setupDrag: () => {
-                item.style.width = maxSize + 'px';
-                item.style.marginRight = -(maxSize / 2) + 'px';
-            },
-            cleanupDrag: () => {
-                item.style.width = size + 'px';
-                item.style.marginRight = '';
-            }
-        },
-        'bottom-right': {
-            shouldDrag: () => {
-                const bottomRule = !overlay?.style?.bottom && overlay?.style?.top;
-                const rightRule = overlay?.style?.left && !overlay?.style?.right;
-                return bottomRule && rightRule;
-            },
-            handleResize: (e) => {
-                const offsetY = e.clientY - container.getBoundingClientRect().bottom;
-                const newHeight = offsetY + container.clientHeight;
-                if (newHeight >= minHeight && newHeight <= maxHeight) {
-                    container.style.height = newHeight + 'px';
-                }
-                const offsetX = e.clientX - container.getBoundingClientRect().right;
-                const newWidth = offsetX + container.clientWidth;
-                if (newWidth >= minWidth && newWidth <= maxWidth) {
-                    container.style.width = newWidth + 'px';
-                }
-            },
-            setupDrag: () => {
-                item.style.height = maxSize + 'px';
-                item.style.width = maxSize + 'px';
-                item.style.marginBottom = -(maxSize / 2) + 'px';
-                item.style.marginRight = -(maxSize / 2) + 'px';
-            },
-            cleanupDrag: () => {
-                item.style.height = size + 'px';
-                item.style.width = size + 'px';
-                item.style.marginBottom = '';
-                item.style.marginRight = '';
-            }
-        },
-        'bottom': {
-            shouldDrag: () => !overlay?.style?.bottom && overlay?.style?.top,
-            handleResize: (e) => {
-                const offsetY = e.clientY - container.getBoundingClientRect().bottom;
-                const newHeight = offsetY + container.clientHeight;
-                if (newHeight >= minHeight && newHeight <= maxHeight) {
-                    container.style.height = newHeight + 'px';
-                }
-            },
-            setupDrag: () => {
-                item.style.height = maxSize + 'px';
-                item.style.marginBottom = -(maxSize / 2) + 'px';
-            },
-            cleanupDrag: () => {
-                item.style.height = size + 'px';
-                item.style.marginBottom = '';
-            }
-        },
-        'bottom-left': {
-            shouldDrag: () => {
-                const bottomRule = !overlay?.style?.bottom && overlay?.style?.top;
-                const leftRule = overlay?.style?.right && !overlay?.style?.left;
-                return bottomRule && leftRule;
-            },
-            handleResize: (e) => {
-                const offsetY = e.clientY - container.getBoundingClientRect().bottom;
-                const newHeight = offsetY + container.clientHeight;
-                if(newHeight >= minHeight && newHeight <= maxHeight) {
-                    container.style.height = newHeight + 'px';
-                }
-                const offsetX = container.getBoundingClientRect().left - e.clientX;
-                const newWidth = offsetX + container.clientWidth;
-                if (newWidth >= minWidth && newWidth <= maxWidth) {
-                    container.style.width = newWidth + 'px';
-                }
-            },
-            setupDrag: () => {
-                item.style.height = maxSize + 'px';
-                item.style.width = maxSize + 'px';
-                item.style.marginBottom = -(maxSize / 2) + 'px';
-                item.style.marginLeft = -(maxSize / 2) + 'px';
-            },
-            cleanupDrag: () => {
-                item.style.height = size + 'px';
-                item.style.width = size + 'px';
-                item.style.marginBottom = '';
-                item.style.marginLeft = '';
-            }
-        },
-        'left': {
-            shouldDrag: () => overlay?.style?.right && !overlay?.style?.left,
-            handleResize: (e) => {
-                const offsetX = container.getBoundingClientRect().left - e.clientX;
-                const newWidth = offsetX + container.clientWidth;
-                if (newWidth >= minWidth && newWidth <= maxWidth) {
-                    container.style.width = newWidth + 'px';
-                }
-            },
-            setupDrag: () => {
-                item.style.width = maxSize + 'px';
-                item.style.marginLeft = -(maxSize / 2) + 'px';
-            },
-            cleanupDrag: () => {
-                item.style.width = size + 'px';
-                item.style.marginLeft = '';
-            }
-        },
-        'top-left': {
-            shouldDrag: () => {
-                const topRule = overlay?.style?.bottom && !overlay?.style?.top;
-                const leftRule = overlay?.style?.right && !overlay?.style?.left;
-                return topRule && leftRule;
-            },
-            handleResize: (e) => {
-                const offsetY = container.getBoundingClientRect().top - e.clientY;
-                const newHeight = offsetY + container.clientHeight;
-                if(newHeight >= minHeight && newHeight <= maxHeight) {
-                    container.style.height = newHeight + 'px';
-                }
-                const offsetX = container.getBoundingClientRect().left - e.clientX;
-                const newWidth = offsetX + container.clientWidth;
-                if (newWidth >= minWidth && newWidth <= maxWidth) {
-                    container.style.width = newWidth + 'px';
-                }
-            },
-            setupDrag: () => {
-                item.style.height = maxSize + 'px';
-                item.style.width = maxSize + 'px';
-                item.style.marginTop = -(maxSize / 2) + 'px';
-                item.style.marginLeft = -(maxSize / 2) + 'px';
-            },
-            cleanupDrag: () => {
-                item.style.height = size + 'px';
-                item.style.width = size + 'px';
-                item.style.marginTop = '';
-                item.style.marginLeft = '';
-            }
-        }
-    };
+    // The popover overlay, whose position tells which edges of the window can be dragged
+    fetchOverlay() {
+        const popover = this.host.querySelector(`.${POPOVER_CLASS}`);
+        return popover?.shadowRoot?.querySelector(OVERLAY_TAG)
+            || [...document.getElementsByClassName(POPOVER_CLASS)].find(p => p.tagName == OVERLAY_TAG);
+    }
 
-    const config = directionConfig[direction];
-    if (!config) {
-        console.error(`Invalid direction: ${direction}. Valid directions: ${Object.keys(directionConfig).join(', ')}`);
-        return;
+    edgesOf(direction) {
+        return {
+            top: direction.startsWith('top'),
+            bottom: direction.startsWith('bottom'),
+            left: direction.endsWith('left'),
+            right: direction.endsWith('right')
+        };
     }
 
-    window.requestAnimationFrame(fetchOverlay);
-    setTimeout(fetchOverlay, 2000); // in case the overlay is not available immediately, check again after 2 seconds
+    // An edge can be dragged only if the opposite edge of the overlay is anchored
+    shouldDrag(edges) {
+        const style = this.fetchOverlay()?.style;
+        const anchored = (edge, opposite) => !!style?.[opposite] && !style?.[edge];
+        return (!edges.top || anchored('top', 'bottom'))
+            && (!edges.bottom || anchored('bottom', 'top'))
+            && (!edges.left || anchored('left', 'right'))
+            && (!edges.right || anchored('right', 'left'));
+    }
 
-    // Fetch the root overlay component
-    function fetchOverlay() {
-        if (!overlay) {
-            overlay = document.querySelector(`.${popoverTag}`)?.shadowRoot?.querySelector(overlayTag);
-            if(!overlay) {
-                overlay = [...document.getElementsByClassName(popoverTag)].find(p => p.tagName == overlayTag);
-            }
-        }
+    /** Highlights the resizer if the window can be resized from it. */
+    hover(resizer) {
+        if (this.drag) return;
+        const edges = this.edgesOf(ChatAssistantResize.directionOf(resizer));
+        resizer.classList.toggle('active', this.shouldDrag(edges));
     }
 
-    item.addEventListener('pointerenter', (e) => {
-        if (config.shouldDrag()) {
-            item.classList.add('active');
-            const computedStyle = window.getComputedStyle(container);
-            minHeight = computedStyle.minHeight ? parseFloat(computedStyle.minHeight) || 0 : 0;
-            minWidth = computedStyle.minWidth ? parseFloat(computedStyle.minWidth) || 0 : 0;
-            maxWidth = computedStyle.maxWidth ? parseFloat(computedStyle.maxWidth) || Infinity : Infinity;
-            maxHeight = computedStyle.maxHeight ? parseFloat(computedStyle.maxHeight) || Infinity : Infinity;
+    start(e, resizer) {
+        const edges = this.edgesOf(ChatAssistantResize.directionOf(resizer));
+        if (!this.shouldDrag(edges)) {
+            return false;
         }
-        else {
-            item.classList.remove('active');
+        const container = resizer.parentElement;
+        const computedStyle = window.getComputedStyle(container);
+        this.drag = {
+            resizer,
+            container,
+            edges,
+            startX: e.clientX,
+            startY: e.clientY,
+            startWidth: container.clientWidth,
+            startHeight: container.clientHeight,
+            clientX: e.clientX,
+            clientY: e.clientY,
+            minWidth: parseFloat(computedStyle.minWidth) || 0,
+            minHeight: parseFloat(computedStyle.minHeight) || 0,
+            maxWidth: parseFloat(computedStyle.maxWidth) || Infinity,
+            maxHeight: parseFloat(computedStyle.maxHeight) || Infinity
+        };
+        resizer.classList.add('active');
+        resizer.setPointerCapture(e.pointerId);
+        // Enlarge the resizer while dragging, so that the pointer does not leave it
+        const half = -(this.maxSize / 2) + 'px';
+        if (edges.top || edges.bottom) {
+            resizer.style.height = this.maxSize + 'px';
+            resizer.style[edges.top ? 'marginTop' : 'marginBottom'] = half;
         }
-    });
-
-    item.addEventListener('pointerdown', (e) => {
-        isDragging = config.shouldDrag();
-        if (isDragging) {
-            item.setPointerCapture(e.pointerId);
-            config.setupDrag();
+        if (edges.left || edges.right) {
+            resizer.style.width = this.maxSize + 'px';
+            resizer.style[edges.left ? 'marginLeft' : 'marginRight'] = half;
         }
-    });
+        return true;
+    }
 
-    item.addEventListener('pointermove', (e) => {
-        if (!isDragging) return;
-        config.handleResize(e);
-    });
+    move(e) {
+        this.drag.clientX = e.clientX;
+        this.drag.clientY = e.clientY;
+        this.frame ||= window.requestAnimationFrame(() => {
+            this.frame = 0;
+            this.apply();
+        });
+    }
 
-    item.addEventListener('pointerup', (e) => stopDragging(e));
-    item.addEventListener('pointerleave', (e) => stopDragging(e));
-    item.addEventListener('pointercancel', (e) => stopDragging(e));
+    // Writes the size for the last pointer position, computed from the layout read at start
+    apply() {
+        const drag = this.drag;
+        const { container, edges } = drag;
+        if (edges.top || edges.bottom) {
+            const offsetY = edges.top ? drag.startY - drag.clientY : drag.clientY - drag.startY;
+            drag.height = Math.min(Math.max(drag.startHeight + offsetY, drag.minHeight), drag.maxHeight);
+            container.style.height = drag.height + 'px';
+        }
+        if (edges.left || edges.right) {
+            const offsetX = edges.left ? drag.startX - drag.clientX : drag.clientX - drag.startX;
+            drag.width = Math.min(Math.max(drag.startWidth + offsetX, drag.minWidth), drag.maxWidth);
+            container.style.width = drag.width + 'px';
+        }
+    }
 
-    function stopDragging(e) {
-        const wasDragging = isDragging;
-        isDragging = false;
-        item.classList.remove('active');
-        if (wasDragging) {
-            config.cleanupDrag();
-            if (item.hasPointerCapture(e.pointerId)) {
-                item.releasePointerCapture(e.pointerId);
-            }
+    stop(e) {
+        const drag = this.drag;
+        const { resizer } = drag;
+        if (this.frame) {
+            window.cancelAnimationFrame(this.frame);
+            this.frame = 0;
+        }
+        if (e.type === 'pointerup') {
+            drag.clientX = e.clientX;
+            drag.clientY = e.clientY;
+        }
+        const resized = drag.width !== undefined || drag.height !== undefined
+            || drag.clientX !== drag.startX || drag.clientY !== drag.startY;
+        if (resized) {
+            this.apply();
+        }
+        this.drag = null;
+        resizer.classList.remove('active');
+        resizer.style.height = '';
+        resizer.style.width = '';
+        resizer.style.margin = '';
+        if (resizer.hasPointerCapture(e.pointerId)) {
+            resizer.releasePointerCapture(e.pointerId);
+        }
+        if (resized) {
+            this.host.$server?.onWindowResized(drag.width ?? null, drag.height ?? null);
         }
     }
-};
+}
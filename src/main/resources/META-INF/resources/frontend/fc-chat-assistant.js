@@ -0,0 +1,145 @@
+/*-
+ * #%L
+ * Chat Assistant Add-on
+ * %%
+ * Copyright (C) 2023 - 2026 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+import { ChatAssistantMovement, observeViewport, unobserveViewport } from './fc-chat-assistant-movement.js';
+import { ChatAssistantResize } from './fc-chat-assistant-resize.js';
+import { tracePaint } from './fc-chat-latency-trace.js';
+
+const POINTER_EVENTS = ['pointerdown', 'pointermove', 'pointerup', 'pointercancel', 'lostpointercapture', 'pointerover'];
+
+/**
+ * Host element of the chat assistant. It owns the dragging of the floating action button, the
+ * resizing of the chat window and the unread messages badge, which are wired once when the element
+ * is connected and unwired when it is disconnected. Pointer events are handled by delegation, so
+ * that the chat window content does not need to be wired when it is opened.
+ */
+class AnimatedFab extends HTMLElement {
+
+    static get observedAttributes() {
+        return ['unread-messages'];
+    }
+
+    constructor() {
+        super();
+        // Configuration, which may be set as properties before the element is connected
+        this.fabMargin ??= 25;
+        this.dragSensitivity ??= 25;
+        this.maxResizerSize ??= 200;
+        this._movement = new ChatAssistantMovement(this);
+        this._resize = new ChatAssistantResize(this);
+        this._onPointerEvent = this._onPointerEvent.bind(this);
+        this._onOpenedChanged = this._onOpenedChanged.bind(this);
+        this._onViewportResize = () => this._movement.fitViewport(this._container());
+    }
+
+    connectedCallback() {
+        POINTER_EVENTS.forEach(type => this.addEventListener(type, this._onPointerEvent));
+        this.addEventListener('opened-changed', this._onOpenedChanged, true);
+        observeViewport(this._onViewportResize);
+        // The children may be attached after the element
+        requestAnimationFrame(() => {
+            this._movement.updatePosition();
+            this._updateBadge();
+        });
+    }
+
+    disconnectedCallback() {
+        POINTER_EVENTS.forEach(type => this.removeEventListener(type, this._onPointerEvent));
+        this.removeEventListener('opened-changed', this._onOpenedChanged, true);
+        unobserveViewport(this._onViewportResize);
+        this._detachedOverlay?.forEach(overlay => POINTER_EVENTS.forEach(
+            type => overlay.removeEventListener(type, this._onPointerEvent)));
+        this._detachedOverlay = null;
+    }
+
+    attributeChangedCallback() {
+        this._updateBadge();
+    }
+
+    // Reports when the content update just applied is painted
+    tracePaint(seq, serverTime, messageId) {
+        tracePaint(this, seq, serverTime, messageId);
+    }
+
+    _updateBadge() {
+        const badge = this.querySelector('.fc-chat-assistant-unread-badge');
+        if (badge) {
+            const count = parseInt(this.getAttribute('unread-messages')) || 0;
+            badge.textContent = count;
+            badge.toggleAttribute('visible', count > 0);
+        }
+    }
+
+    // The chat window content, which is the parent of the resizers
+    _container() {
+        const selector = '.fc-chat-assistant-window';
+        return this.querySelector(selector) || this._resize.fetchOverlay()?.querySelector(selector);
+    }
+
+    // Overlays rendered outside of this element do not propagate their events to it
+    _onOpenedChanged(e) {
+        const overlay = e.detail?.value && this._resize.fetchOverlay();
+        if (overlay && !this.contains(overlay) && overlay.getRootNode() === document) {
+            this._detachedOverlay ??= new Set();
+            if (!this._detachedOverlay.has(overlay)) {
+                this._detachedOverlay.add(overlay);
+                POINTER_EVENTS.forEach(type => overlay.addEventListener(type, this._onPointerEvent));
+            }
+        }
+    }
+
+    _onPointerEvent(e) {
+        switch (e.type) {
+            case 'pointerdown': {
+                const path = e.composedPath();
+                const resizer = path.find(el => ChatAssistantResize.directionOf(el));
+                if (resizer) {
+                    this._resize.start(e, resizer);
+                } else if (path.includes(this._movement.item)) {
+                    this._movement.start(e);
+                }
+                break;
+            }
+            case 'pointermove':
+                if (this._resize.drag) {
+                    this._resize.move(e);
+                } else if (this._movement.dragging) {
+                    this._movement.move(e);
+                }
+                break;
+            case 'pointerover': {
+                const resizer = e.composedPath().find(el => ChatAssistantResize.directionOf(el));
+                if (resizer) {
+                    this._resize.hover(resizer);
+                }
+                break;
+            }
+            default:
+                if (this._resize.drag) {
+                    this._resize.stop(e);
+                } else if (this._movement.dragging && this._movement.stop(e)) {
+                    this.$server?.onClick();
+                }
+        }
+    }
+}
+
+if (!customElements.get('animated-fab')) {
+    customElements.define('animated-fab', AnimatedFab);
+}
@@ -0,0 +1,59 @@
+/*-
+ * #%L
+ * Chat Assistant Add-on
+ * %%
+ * Copyright (C) 2023 - 2026 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+// Reports when traced content updates are painted, in batches, to the ChatAssistant server side
+const FLUSH_INTERVAL = 1000;
+const MAX_BATCH = 50;
+
+const batches = new WeakMap();
+
+function flush(host, batch) {
+    clearTimeout(batch.timer);
+    batch.timer = null;
+    const times = batch.times;
+    const messageIds = batch.messageIds;
+    batch.times = [];
+    batch.messageIds = [];
+    if (messageIds.length && host.$server) {
+        host.$server.reportPaints(times, messageIds, performance.now());
+    }
+}
+
+/**
+ * Queues the report of a traced content update of the given host. Invoked after the content
+ * update, since invocations run after the changes are applied. The update is painted with the next
+ * frame, so paint time is taken from a task queued by it.
+ */
+export function tracePaint(host, seq, serverTime, messageId) {
+    requestAnimationFrame(() => setTimeout(() => {
+        let batch = batches.get(host);
+        if (!batch) {
+            batch = { times: [], messageIds: [], timer: null };
+            batches.set(host, batch);
+        }
+        batch.times.push(seq, serverTime, performance.now());
+        batch.messageIds.push(messageId);
+        if (batch.messageIds.length >= MAX_BATCH) {
+            flush(host, batch);
+        } else if (!batch.timer) {
+            batch.timer = setTimeout(() => flush(host, batch), FLUSH_INTERVAL);
+        }
+    }));
+}
@@ -0,0 +1,159 @@
+/*-
+ * #%L
+ * Chat Assistant Add-on
+ * %%
+ * Copyright (C) 2023 - 2026 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+// Client-side formatting of message times, which are received as epoch milliseconds
+(() => {
+    const RELATIVE_UPDATE_INTERVAL = 30000;
+    const UNITS = [
+        ['year', 31536000], ['month', 2592000], ['week', 604800],
+        ['day', 86400], ['hour', 3600], ['minute', 60], ['second', 1]
+    ];
+    const PATTERN_TOKEN = /'([^']*)'|y+|M+|d+|H+|h+|m+|s+|a/g;
+
+    const formats = new Map();
+    const relativeMessages = new Set();
+    let timer;
+
+    const twoDigits = (value) => value.length === 1 ? '0' + value : value;
+
+    // Formats a single pattern letter by extracting the corresponding part from Intl.DateTimeFormat
+    const field = (locale, token) => {
+        const length = token.length;
+        let options;
+        let type;
+        switch (token[0]) {
+            case 'y': type = 'year'; options = { year: length === 2 ? '2-digit' : 'numeric' }; break;
+            case 'M': type = 'month';
+                options = { month: length >= 4 ? 'long' : length === 3 ? 'short' : 'numeric' }; break;
+            case 'd': type = 'day'; options = { day: 'numeric' }; break;
+            case 'H': type = 'hour'; options = { hour: 'numeric', hourCycle: 'h23' }; break;
+            case 'h': type = 'hour'; options = { hour: 'numeric', hourCycle: 'h12' }; break;
+            case 'm': type = 'minute'; options = { minute: 'numeric' }; break;
+            case 's': type = 'second'; options = { second: 'numeric' }; break;
+            default: type = 'dayPeriod'; options = { hour: 'numeric', hourCycle: 'h12' };
+        }
+        const format = new Intl.DateTimeFormat(locale, options);
+        const pad = length === 2 && type !== 'year';
+        return (date) => {
+            const part = format.formatToParts(date).find(p => p.type === type);
+            const value = part ? part.value : '';
+            return pad ? twoDigits(value) : value;
+        };
+    };
+
+    const patternFormat = (locale, pattern) => {
+        const parts = [];
+        let last = 0;
+        for (const match of pattern.matchAll(PATTERN_TOKEN)) {
+            parts.push(pattern.substring(last, match.index));
+            parts.push(match[1] !== undefined ? match[1] : field(locale, match[0]));
+            last = match.index + match[0].length;
+        }
+        parts.push(pattern.substring(last));
+        return (epoch) => {
+            const date = new Date(epoch);
+            return parts.map(part => typeof part === 'string' ? part : part(date)).join('');
+        };
+    };
+
+    const relativeFormat = (locale) => {
+        const format = new Intl.RelativeTimeFormat(locale, { numeric: 'auto' });
+        return (epoch) => {
+            const seconds = Math.round((epoch - Date.now()) / 1000);
+            const [unit, size] = UNITS.find(([, size]) => Math.abs(seconds) >= size) || UNITS[UNITS.length - 1];
+            return format.format(Math.round(seconds / size), unit);
+        };
+    };
+
+    const createFormat = (json) => {
+        const options = JSON.parse(json);
+        const locale = options.locale || undefined;
+        if (options.relative) {
+            return { relative: true, format: relativeFormat(locale) };
+        }
+        if (options.pattern) {
+            return { format: patternFormat(locale, options.pattern) };
+        }
+        const format = new Intl.DateTimeFormat(locale, { dateStyle: options.dateStyle, timeStyle: options.timeStyle });
+        return { format: (epoch) => format.format(epoch) };
+    };
+
+    const updateRelativeTimes = () => {
+        relativeMessages.forEach(message => {
+            if (message.isConnected) {
+                message.time = message.__fcTimeFormat.format(message.__fcEpoch);
+            } else {
+                relativeMessages.delete(message);
+            }
+        });
+        if (relativeMessages.size === 0) {
+            clearInterval(timer);
+            timer = undefined;
+        }
+    };
+
+    const getFormat = (json) => {
+        let format = formats.get(json);
+        if (!format) {
+            format = createFormat(json);
+            formats.set(json, format);
+        }
+        return format;
+    };
+
+    // Formats an epoch once, for templates that render the time themselves
+    window.fcChatMessageFormatTime = (epoch, json) => epoch == null ? undefined : getFormat(json).format(epoch);
+
+    const updateTime = (message) => {
+        const json = message.getAttribute('data-time-format');
+        const epoch = message.getAttribute('data-epoch');
+        if (json === null || epoch === null) {
+            relativeMessages.delete(message);
+            if (json !== null) {
+                message.time = undefined;
+            }
+            // without a format, the time is formatted by the server
+            return;
+        }
+        const format = getFormat(json);
+        message.__fcEpoch = Number(epoch);
+        message.__fcTimeFormat = format;
+        message.time = format.format(message.__fcEpoch);
+        if (format.relative) {
+            relativeMessages.add(message);
+            if (!timer) {
+                timer = setInterval(updateRelativeTimes, RELATIVE_UPDATE_INTERVAL);
+            }
+        } else {
+            relativeMessages.delete(message);
+        }
+    };
+
+    // Formats the time of a message from its data-epoch and data-time-format attributes, and again
+    // whenever they change
+    window.fcChatMessageTime = (message) => {
+        if (!message.__fcTimeObserver) {
+            message.__fcTimeObserver = new MutationObserver(() => updateTime(message));
+            message.__fcTimeObserver.observe(message,
+                { attributes: true, attributeFilter: ['data-epoch', 'data-time-format'] });
+        }
+        updateTime(message);
+    };
+})();
@@ -36,6 +36,7 @@ public class ChatAssistantDemoView extends TabbedDemo {
     addDemo(ChatAssistantLazyLoadingDemo.class);
     addDemo(ChatAssistantMarkdownDemo.class);
     addDemo(ChatAssistantGenerativeDemo.class);
+    addDemo(ChatAssistantLightweightDemo.class);
     setSizeFull();
   }
 }
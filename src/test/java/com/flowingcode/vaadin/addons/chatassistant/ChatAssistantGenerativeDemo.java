@@ -22,7 +22,6 @@ package com.flowingcode.vaadin.addons.chatassistant;
 import com.flowingcode.vaadin.addons.demo.DemoSource;
 import com.flowingcode.vaadin.addons.demo.SourcePosition;
 import com.google.common.base.Strings;
-import com.vaadin.flow.component.UI;
 import com.vaadin.flow.component.avatar.Avatar;
 import com.vaadin.flow.component.button.Button;
 import com.vaadin.flow.component.dependency.CssImport;
@@ -33,11 +32,10 @@ import com.vaadin.flow.component.textfield.TextArea;
 import com.vaadin.flow.data.renderer.ComponentRenderer;
 import com.vaadin.flow.router.PageTitle;
 import com.vaadin.flow.router.Route;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Arrays;
-import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ThreadLocalRandom;
-import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
 
 @DemoSource(sourcePosition = SourcePosition.PRIMARY)
@@ -59,6 +57,7 @@ public class ChatAssistantGenerativeDemo extends VerticalLayout {
     chatAssistant.setFabIcon(icon);
     chatAssistant.setWindowWidth("400px");
     chatAssistant.setWindowHeight("400px");
+    chatAssistant.setUpdateCoalescing(Duration.ofMillis(100), 0);
     TextArea message = new TextArea();
     message.setLabel("Enter a message from the assistant");
     message.setSizeFull();
@@ -96,26 +95,8 @@ public class ChatAssistantGenerativeDemo extends VerticalLayout {
           .messageTime(LocalDateTime.now())
           .name("Assistant").avatar("chatbot.png").tagline("Generated by assistant").build();
 
-      UI currentUI = UI.getCurrent();
       chatAssistant.sendMessage(delayedMessage);
-
-      CompletableFuture.runAsync(() -> {
-        try {
-          TimeUnit.MILLISECONDS.sleep(500);
-          currentUI.access(() -> {
-            delayedMessage.setLoading(false);
-          });
-          streamWords(messageToSend)
-          .forEach(item -> {
-            currentUI.access(() -> {
-              delayedMessage.setContent(delayedMessage.getContent() + item);
-              chatAssistant.updateMessage(delayedMessage); 
-            });
-          });
-        } catch (InterruptedException e) {
-          Thread.currentThread().interrupt();
-        }
-      });
+      chatAssistant.streamToMessage(delayedMessage, streamWords(messageToSend));
 
       message.clear();
     });
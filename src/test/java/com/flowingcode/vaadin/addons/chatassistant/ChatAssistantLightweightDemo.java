@@ -0,0 +1,103 @@
+/*-
+ * #%L
+ * Chat Assistant Add-on
+ * %%
+ * Copyright (C) 2023 - 2026 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.chatassistant;
+
+import com.flowingcode.vaadin.addons.chatassistant.model.Message;
+import com.flowingcode.vaadin.addons.demo.DemoSource;
+import com.flowingcode.vaadin.addons.demo.SourcePosition;
+import com.vaadin.flow.component.button.Button;
+import com.vaadin.flow.component.checkbox.Checkbox;
+import com.vaadin.flow.component.dependency.CssImport;
+import com.vaadin.flow.component.html.Span;
+import com.vaadin.flow.component.icon.SvgIcon;
+import com.vaadin.flow.component.orderedlayout.VerticalLayout;
+import com.vaadin.flow.component.textfield.TextArea;
+import com.vaadin.flow.data.provider.DataProvider;
+import com.vaadin.flow.router.PageTitle;
+import com.vaadin.flow.router.Route;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@DemoSource(sourcePosition = SourcePosition.PRIMARY)
+@PageTitle("Lightweight Rendering Demo")
+@SuppressWarnings("serial")
+@Route(value = "chat-assistant/lightweight-demo", layout = ChatAssistantDemoView.class)
+@CssImport("./styles/chat-assistant-styles-demo.css")
+public class ChatAssistantLightweightDemo extends VerticalLayout {
+
+  List<Message> messages = new ArrayList<>();
+
+  public ChatAssistantLightweightDemo() {
+    LocalDateTime start = LocalDateTime.now().minusDays(1);
+    for (int i = 0; i < 1000; i++) {
+      String name = i % 2 == 0 ? "User" : "Assistant";
+      messages.add(Message.builder().name(name).messageTime(start.plusMinutes(i))
+          .content("Message number " + (i + 1) + " of a long conversation").build());
+    }
+
+    ChatAssistant<Message> chatAssistant = new ChatAssistant<>();
+    chatAssistant.setClassName("small");
+    SvgIcon icon = new SvgIcon("chatbot.svg");
+    icon.setColor("var(--lumo-primary-contrast-color)");
+    chatAssistant.setFabIcon(icon);
+    chatAssistant.setWindowWidth("400px");
+    chatAssistant.setWindowHeight("400px");
+    Span lazyLoadingData = new Span();
+    DataProvider<Message,?> dataProvider = DataProvider.fromCallbacks(query->{
+      lazyLoadingData.setText("Loading messages from: " + query.getOffset() + ", with limit: " + query.getLimit());
+      return messages.stream().skip(query.getOffset()).limit(query.getLimit());
+    }, query->{
+      return messages.size();
+    });
+    chatAssistant.setDataProvider(dataProvider);
+    // messages are rendered by a client-side template, and the newest ones are fetched first
+    chatAssistant.setLightweightRendering(true);
+    chatAssistant.setReverseLazyLoading(10);
+
+    Checkbox lightweight = new Checkbox("Lightweight rendering", true);
+    lightweight.addValueChangeListener(ev -> chatAssistant.setLightweightRendering(ev.getValue()));
+
+    TextArea message = new TextArea();
+    message.setLabel("Enter a message from the assistant");
+    message.setSizeFull();
+
+    Button chat = new Button("Chat");
+    chat.addClickListener(ev -> {
+      Message m = Message.builder().content(message.getValue()).messageTime(LocalDateTime.now())
+          .name("Assistant").avatar("chatbot.png").build();
+
+      messages.add(m);
+      dataProvider.refreshAll();
+      chatAssistant.scrollToEnd();
+      message.clear();
+    });
+    chatAssistant.setSubmitListener(ev -> {
+      Message userMessage = Message.builder().messageTime(LocalDateTime.now())
+          .name("User").content(ev.getValue()).build();
+      messages.add(userMessage);
+      dataProvider.refreshAll();
+      chatAssistant.scrollToEnd();
+    });
+
+    add(lightweight, message, lazyLoadingData, chat, chatAssistant);
+  }
+
+}
@@ -41,6 +41,8 @@ public class ChatAssistantMarkdownDemo extends VerticalLayout {
   
   public ChatAssistantMarkdownDemo() {
     ChatAssistant<Message> chatAssistant = new ChatAssistant<>(true);
+    chatAssistant.setIncrementalMarkdown(true);
+    chatAssistant.setClientTimeFormat(ClientTimeFormat.relative());
     SvgIcon icon = new SvgIcon("chatbot.svg");
     icon.setColor("var(--lumo-primary-contrast-color)");
     chatAssistant.setFabIcon(icon);
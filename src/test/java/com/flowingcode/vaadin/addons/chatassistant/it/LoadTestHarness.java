@@ -0,0 +1,329 @@
+/*-
+ * #%L
+ * Chat Assistant Add-on
+ * %%
+ * Copyright (C) 2023 - 2026 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.chatassistant.it;
+
+import com.flowingcode.vaadin.addons.chatassistant.ChatAssistant;
+import com.flowingcode.vaadin.addons.chatassistant.model.Message;
+import com.vaadin.flow.component.Component;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.virtuallist.VirtualList;
+import com.vaadin.flow.internal.StateTree;
+import com.vaadin.flow.server.Command;
+import com.vaadin.flow.server.VaadinSession;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import lombok.Builder;
+
+/**
+ * Headless harness that creates many sessions in-process, each one with a {@link ChatAssistant}
+ * attached to its UI, and drives conversations through them: the history is loaded and displayed,
+ * and then the user submits messages that are answered by streaming words with random delays, as
+ * in {@code ChatAssistantGenerativeDemo.streamWords}.
+ *
+ * <p>There is no browser: changes are collected from the state tree after each access, as if they
+ * were pushed, and the client is assumed to be scrolled to the end of the conversation.
+ */
+@Builder
+public class LoadTestHarness {
+
+  private static final int VISIBLE_ROWS = 20;
+  private static final String[] WORDS =
+      "the assistant streams a generated answer word by word to the user".split(" ");
+
+  @Builder.Default
+  private final int sessions = 50;
+  @Builder.Default
+  private final int historyMessages = 200;
+  @Builder.Default
+  private final int turns = 3;
+  @Builder.Default
+  private final int wordsPerAnswer = 50;
+  @Builder.Default
+  private final int minTokenDelayMillis = 5;
+  @Builder.Default
+  private final int maxTokenDelayMillis = 20;
+  @Builder.Default
+  private final boolean markdownEnabled = false;
+  @Builder.Default
+  private final long timeoutSeconds = 300;
+
+  private final Histogram lockHolds = new Histogram();
+  private final AtomicLong streamedTokens = new AtomicLong();
+
+  /** Histogram of durations, with buckets whose bounds are powers of two. */
+  private static final class Histogram {
+    private final AtomicLongArray buckets = new AtomicLongArray(64);
+    private final AtomicLong max = new AtomicLong();
+
+    void record(long nanos) {
+      buckets.incrementAndGet(63 - Long.numberOfLeadingZeros(Math.max(1, nanos)));
+      max.accumulateAndGet(nanos, Math::max);
+    }
+
+    long count() {
+      long count = 0;
+      for (int i = 0; i < buckets.length(); i++) {
+        count += buckets.get(i);
+      }
+      return count;
+    }
+
+    /** Returns the upper bound of the bucket that contains the given percentile. */
+    long percentile(double percentile) {
+      long threshold = (long) Math.ceil(count() * percentile / 100);
+      long count = 0;
+      for (int i = 0; i < buckets.length(); i++) {
+        count += buckets.get(i);
+        if (count >= threshold && count > 0) {
+          return Math.min(max.get(), (1L << (i + 1)) - 1);
+        }
+      }
+      return 0;
+    }
+  }
+
+  /** Session lock that records how long it is held. */
+  @SuppressWarnings("serial")
+  private final class TimedLock extends ReentrantLock {
+    private long acquiredAt;
+
+    @Override
+    public void lock() {
+      super.lock();
+      if (getHoldCount() == 1) {
+        acquiredAt = System.nanoTime();
+      }
+    }
+
+    @Override
+    public void unlock() {
+      if (getHoldCount() == 1) {
+        lockHolds.record(System.nanoTime() - acquiredAt);
+      }
+      super.unlock();
+    }
+  }
+
+  /** UI of a session, which runs access commands on the shared executor, as push would. */
+  @SuppressWarnings("serial")
+  private final class SessionUI extends UI {
+    private final TimedLock lock = new TimedLock();
+    private final transient ExecutorService executor;
+    private final List<Message> messages = new ArrayList<>();
+    private ChatAssistant<Message> chatAssistant;
+    private VirtualList<?> virtualList;
+
+    SessionUI(ExecutorService executor) {
+      this.executor = executor;
+      VaadinSession session = new VaadinSession(null) {
+        @Override
+        public Lock getLockInstance() {
+          return lock;
+        }
+
+        @Override
+        public boolean hasLock() {
+          return lock.isHeldByCurrentThread();
+        }
+
+        @Override
+        public void checkHasLock(String message) {}
+
+        @Override
+        public void checkHasLock() {}
+      };
+      runLocked(() -> getInternals().setSession(session));
+    }
+
+    @Override
+    public Future<Void> access(Command command) {
+      return accessAsync(command);
+    }
+
+    CompletableFuture<Void> accessAsync(Command command) {
+      return CompletableFuture.runAsync(() -> runLocked(command), executor);
+    }
+
+    void runLocked(Command command) {
+      lock.lock();
+      try {
+        UI.setCurrent(this);
+        command.execute();
+        if (virtualList != null) {
+          collectChanges();
+        }
+      } finally {
+        UI.setCurrent(null);
+        lock.unlock();
+      }
+    }
+
+    /** Collects the changes that would be sent to the client, which displays the last rows. */
+    private void collectChanges() {
+      int size = messages.size();
+      virtualList.getDataCommunicator()
+          .setRequestedRange(Math.max(0, size - VISIBLE_ROWS), VISIBLE_ROWS);
+      StateTree stateTree = getInternals().getStateTree();
+      stateTree.runExecutionsBeforeClientResponse();
+      stateTree.collectChanges(change -> {});
+      getInternals().dumpPendingJavaScriptInvocations();
+    }
+
+    /** Loads the history of the conversation and opens the chat window. */
+    void loadHistory() {
+      LocalDateTime time = LocalDateTime.now().minusDays(1);
+      for (int i = 0; i < historyMessages; i++) {
+        messages.add(Message.builder().name(i % 2 == 0 ? "User" : "Assistant")
+            .messageTime(time.plusMinutes(i)).content(answer(i, wordsPerAnswer / 2)).build());
+      }
+      runLocked(() -> {
+        chatAssistant = new ChatAssistant<>(messages, markdownEnabled);
+        virtualList = findVirtualList(chatAssistant);
+        add(chatAssistant);
+        chatAssistant.open();
+      });
+    }
+
+    /** Submits a message and streams the answer, completing when the answer is displayed. */
+    CompletableFuture<Void> converse(int turn) {
+      if (turn == turns) {
+        return CompletableFuture.completedFuture(null);
+      }
+      String text = answer(turn, wordsPerAnswer);
+      Message answer = Message.builder().name("Assistant").loading(true).build();
+      CompletableFuture<Void> answered = new CompletableFuture<>();
+      accessAsync(() -> {
+        chatAssistant.sendMessage(Message.builder().name("User").messageTime(LocalDateTime.now())
+            .content("Question " + turn).build());
+        chatAssistant.sendMessage(answer);
+        chatAssistant.streamToMessage(answer, streamWords(text)).whenComplete((r, e) -> {
+          if (e != null) {
+            answered.completeExceptionally(e);
+          } else if (!text.equals(answer.getContent())) {
+            answered.completeExceptionally(
+                new IllegalStateException("Unexpected answer: " + answer.getContent()));
+          } else {
+            answered.complete(null);
+          }
+        });
+      }).exceptionally(e -> {
+        answered.completeExceptionally(e);
+        return null;
+      });
+      return answered.thenCompose(v -> converse(turn + 1));
+    }
+  }
+
+  private static VirtualList<?> findVirtualList(Component component) {
+    if (component instanceof VirtualList<?> list) {
+      return list;
+    }
+    return component.getChildren().map(LoadTestHarness::findVirtualList).filter(Objects::nonNull)
+        .findFirst().orElse(null);
+  }
+
+  private static String answer(int seed, int words) {
+    return IntStream.range(0, words).mapToObj(i -> WORDS[(seed + i) % WORDS.length] + " ")
+        .collect(Collectors.joining());
+  }
+
+  private Stream<String> streamWords(String text) {
+    return Stream.of(text.split(" ")).map(word -> {
+      try {
+        Thread.sleep(
+            ThreadLocalRandom.current().nextLong(minTokenDelayMillis, maxTokenDelayMillis + 1));
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      streamedTokens.incrementAndGet();
+      return word + " ";
+    });
+  }
+
+  private static long usedHeap() {
+    Runtime runtime = Runtime.getRuntime();
+    long used = Long.MAX_VALUE;
+    for (int i = 0; i < 5; i++) {
+      System.gc();
+      used = Math.min(used, runtime.totalMemory() - runtime.freeMemory());
+    }
+    return used;
+  }
+
+  private static long processCpuNanos() {
+    return ((com.sun.management.OperatingSystemMXBean) ManagementFactory
+        .getOperatingSystemMXBean()).getProcessCpuTime();
+  }
+
+  /**
+   * Runs the load test.
+   *
+   * @return the results
+   * @throws Exception if a conversation fails or does not finish in time
+   */
+  public LoadTestReport run() throws Exception {
+    ExecutorService executor =
+        Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+    try {
+      long start = System.nanoTime();
+      long heapBefore = usedHeap();
+      List<SessionUI> uis = new ArrayList<>(sessions);
+      for (int i = 0; i < sessions; i++) {
+        SessionUI ui = new SessionUI(executor);
+        ui.loadHistory();
+        uis.add(ui);
+      }
+
+      long cpuBefore = processCpuNanos();
+      CompletableFuture.allOf(uis.stream().map(ui -> ui.converse(0))
+          .toArray(CompletableFuture[]::new)).get(timeoutSeconds, TimeUnit.SECONDS);
+      long cpu = processCpuNanos() - cpuBefore;
+      long heapPerSession = (usedHeap() - heapBefore) / sessions;
+
+      long tokens = streamedTokens.get();
+      LoadTestReport report = new LoadTestReport(sessions, tokens, heapPerSession,
+          tokens > 0 ? cpu / tokens : 0, lockHolds.count(), lockHolds.percentile(50),
+          lockHolds.percentile(99), lockHolds.max.get(),
+          TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+      // keep the sessions reachable until the heap is measured
+      Objects.requireNonNull(uis);
+      return report;
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+}
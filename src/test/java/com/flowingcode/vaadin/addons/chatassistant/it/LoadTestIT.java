@@ -0,0 +1,67 @@
+/*-
+ * #%L
+ * Chat Assistant Add-on
+ * %%
+ * Copyright (C) 2023 - 2026 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.chatassistant.it;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs the {@link LoadTestHarness}. The size of the run can be configured with the system
+ * properties {@code loadtest.sessions}, {@code loadtest.history}, {@code loadtest.turns} and
+ * {@code loadtest.words}. The run fails if the 99th percentile of the UI lock hold times exceeds
+ * {@code loadtest.maxLockHoldMillis}, or if the heap retained per session exceeds
+ * {@code loadtest.maxHeapPerSession} bytes.
+ */
+public class LoadTestIT {
+
+  private static final Logger logger = LoggerFactory.getLogger(LoadTestIT.class);
+
+  @Test
+  public void testConcurrentSessions() throws Exception {
+    LoadTestHarness harness = LoadTestHarness.builder()
+        .sessions(Integer.getInteger("loadtest.sessions", 50))
+        .historyMessages(Integer.getInteger("loadtest.history", 200))
+        .turns(Integer.getInteger("loadtest.turns", 3))
+        .wordsPerAnswer(Integer.getInteger("loadtest.words", 50))
+        .build();
+
+    LoadTestReport report = harness.run();
+    logger.info("Load test results: {}", report);
+
+    Assert.assertEquals((long) report.getSessions() * Integer.getInteger("loadtest.turns", 3)
+        * Integer.getInteger("loadtest.words", 50), report.getStreamedTokens());
+    Assert.assertTrue(report.getLockAcquisitions() > 0);
+
+    long maxLockHoldNanos =
+        TimeUnit.MILLISECONDS.toNanos(Long.getLong("loadtest.maxLockHoldMillis", 100));
+    Assert.assertTrue(report.getLockHoldMedianNanos() <= report.getLockHoldP99Nanos());
+    Assert.assertTrue("UI lock hold p99: " + report.getLockHoldP99Nanos() + " ns",
+        report.getLockHoldP99Nanos() <= maxLockHoldNanos);
+
+    long maxHeapPerSession = Long.getLong("loadtest.maxHeapPerSession", 4L << 20);
+    Assert.assertTrue("Heap per session: " + report.getHeapBytesPerSession() + " bytes",
+        report.getHeapBytesPerSession() > 0
+            && report.getHeapBytesPerSession() <= maxHeapPerSession);
+  }
+
+}
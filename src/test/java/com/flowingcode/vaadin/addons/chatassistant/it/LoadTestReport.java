@@ -0,0 +1,49 @@
+/*-
+ * #%L
+ * Chat Assistant Add-on
+ * %%
+ * Copyright (C) 2023 - 2026 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.chatassistant.it;
+
+import lombok.Value;
+
+/** Results of a run of the {@link LoadTestHarness}. */
+@Value
+public class LoadTestReport {
+
+  int sessions;
+  long streamedTokens;
+  long heapBytesPerSession;
+  long cpuNanosPerToken;
+  long lockAcquisitions;
+  long lockHoldMedianNanos;
+  long lockHoldP99Nanos;
+  long lockHoldMaxNanos;
+  long elapsedMillis;
+
+  @Override
+  public String toString() {
+    return String.format(
+        "%d sessions, %d tokens in %d ms%n"
+            + "  heap per session:  %,d bytes%n"
+            + "  CPU per token:     %,d ns%n"
+            + "  UI lock holds:     %,d (p50 <= %,d ns, p99 <= %,d ns, max %,d ns)",
+        sessions, streamedTokens, elapsedMillis, heapBytesPerSession, cpuNanosPerToken,
+        lockAcquisitions, lockHoldMedianNanos, lockHoldP99Nanos, lockHoldMaxNanos);
+  }
+
+}
@@ -0,0 +1,114 @@
+/*-
+ * #%L
+ * Chat Assistant Add-on
+ * %%
+ * Copyright (C) 2023 - 2026 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.chatassistant.test;
+
+import com.flowingcode.vaadin.addons.chatassistant.ChatAssistant;
+import com.flowingcode.vaadin.addons.chatassistant.model.Message;
+import com.vaadin.flow.component.Component;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.internal.PendingJavaScriptInvocation;
+import java.lang.reflect.Method;
+import java.util.List;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AnimatedFabTest {
+
+  private UI ui;
+  private ChatAssistant<Message> chatAssistant;
+
+  @Before
+  public void setup() {
+    ui = HeadlessUI.setCurrent(new UI());
+    chatAssistant = new ChatAssistant<>();
+  }
+
+  @After
+  public void tearDown() {
+    UI.setCurrent(null);
+  }
+
+  /** Returns the invocations sent to the client in the next response by the chat assistant. */
+  private List<PendingJavaScriptInvocation> roundTrip() {
+    return HeadlessUI.roundTrip(ui).stream()
+        .filter(invocation -> invocation.getOwner() == chatAssistant.getElement().getNode())
+        .toList();
+  }
+
+  @Test
+  public void testAttachWithoutInvocations() {
+    ui.add(chatAssistant);
+    Assert.assertEquals(List.of(), roundTrip());
+    Assert.assertEquals("animated-fab", chatAssistant.getElement().getTag());
+  }
+
+  @Test
+  public void testOpenWithoutInvocations() {
+    ui.add(chatAssistant);
+    roundTrip();
+    for (int i = 0; i < 3; i++) {
+      chatAssistant.open();
+      Assert.assertEquals(List.of(), roundTrip());
+      chatAssistant.close();
+      Assert.assertEquals(List.of(), roundTrip());
+    }
+  }
+
+  @Test
+  public void testUnreadMessages() {
+    chatAssistant.setUnreadMessages(4);
+    Assert.assertEquals("4", chatAssistant.getElement().getAttribute("unread-messages"));
+    chatAssistant.setUnreadMessages(150);
+    Assert.assertEquals(99, chatAssistant.getUnreadMessages());
+    Assert.assertEquals("99", chatAssistant.getElement().getAttribute("unread-messages"));
+    chatAssistant.setUnreadMessages(-1);
+    Assert.assertEquals("0", chatAssistant.getElement().getAttribute("unread-messages"));
+  }
+
+  private void windowResized(Double width, Double height) throws Exception {
+    Method method =
+        ChatAssistant.class.getDeclaredMethod("onWindowResized", Double.class, Double.class);
+    method.setAccessible(true);
+    method.invoke(chatAssistant, width, height);
+  }
+
+  @Test
+  public void testWindowResized() throws Exception {
+    Component window = HeadlessUI.descendants(chatAssistant)
+        .filter(component -> component.hasClassName("fc-chat-assistant-window"))
+        .findFirst().orElseThrow();
+    chatAssistant.setWindowHeight("400px");
+
+    windowResized(350.0, null);
+    Assert.assertEquals("350px", window.getElement().getStyle().get("width"));
+    Assert.assertEquals("400px", window.getElement().getStyle().get("height"));
+
+    windowResized(null, 212.5);
+    Assert.assertEquals("350px", window.getElement().getStyle().get("width"));
+    Assert.assertEquals("212.5px", window.getElement().getStyle().get("height"));
+
+    windowResized(Double.NaN, -1.0);
+    Assert.assertEquals("350px", window.getElement().getStyle().get("width"));
+    Assert.assertEquals("212.5px", window.getElement().getStyle().get("height"));
+  }
+
+}
@@ -0,0 +1,122 @@
+/*-
+ * #%L
+ * Chat Assistant Add-on
+ * %%
+ * Copyright (C) 2023 - 2026 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.chatassistant.test;
+
+import com.flowingcode.vaadin.addons.chatassistant.BoundedMessageList;
+import com.flowingcode.vaadin.addons.chatassistant.ChatAssistant;
+import com.flowingcode.vaadin.addons.chatassistant.metrics.ChatAssistantMetrics;
+import com.flowingcode.vaadin.addons.chatassistant.model.Message;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.internal.PendingJavaScriptInvocation;
+import com.vaadin.flow.component.internal.UIInternals.JavaScriptInvocation;
+import elemental.json.JsonArray;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AppendedItemsTest {
+
+  private static final int MESSAGES = 30;
+
+  /** Records the list refreshes and the messages rendered as components. */
+  @SuppressWarnings("serial")
+  private static class RecordingMetrics implements ChatAssistantMetrics {
+    int fullRefreshes;
+    int rendered;
+
+    @Override
+    public void refreshed(boolean all) {
+      if (all) {
+        fullRefreshes++;
+      }
+    }
+
+    @Override
+    public void contentPushed(int length) {
+      rendered++;
+    }
+  }
+
+  private UI ui;
+  private ChatAssistant<Message> chatAssistant;
+  private final RecordingMetrics metrics = new RecordingMetrics();
+
+  @After
+  public void tearDown() {
+    UI.setCurrent(null);
+  }
+
+  private void setup(List<Message> messages) {
+    ui = HeadlessUI.setCurrent(new UI());
+    chatAssistant = new ChatAssistant<>(messages, false);
+    chatAssistant.setMetrics(metrics);
+    ui.add(chatAssistant);
+    for (int i = 0; i < MESSAGES; i++) {
+      chatAssistant.sendMessage(message(i));
+    }
+    Assert.assertEquals(MESSAGES, roundTrip().size());
+    Assert.assertEquals(MESSAGES, metrics.rendered);
+  }
+
+  private static Message message(int i) {
+    return Message.builder().content("Message " + i).build();
+  }
+
+  /** Returns the indexes of the items sent to the client in the next response. */
+  private List<Integer> roundTrip() {
+    HeadlessUI.findVirtualList(chatAssistant).getDataCommunicator().setRequestedRange(0, MESSAGES * 2);
+    List<Integer> indexes = new ArrayList<>();
+    for (PendingJavaScriptInvocation pending : HeadlessUI.roundTrip(ui)) {
+      JavaScriptInvocation invocation = pending.getInvocation();
+      if (invocation.getExpression().contains("$connector.set(")) {
+        int start = (int) ((Number) invocation.getParameters().get(1)).doubleValue();
+        JsonArray items = (JsonArray) invocation.getParameters().get(2);
+        for (int i = 0; i < items.length(); i++) {
+          indexes.add(start + i);
+        }
+      }
+    }
+    return indexes;
+  }
+
+  @Test
+  public void testOnlyAppendedItemIsSent() {
+    setup(new ArrayList<>());
+    chatAssistant.sendMessage(message(MESSAGES));
+    Assert.assertEquals(List.of(MESSAGES), roundTrip());
+    Assert.assertEquals(MESSAGES + 1, metrics.rendered);
+    Assert.assertEquals(0, metrics.fullRefreshes);
+  }
+
+  @Test
+  public void testRefreshAllOnEviction() {
+    setup(new BoundedMessageList<>(MESSAGES));
+    chatAssistant.sendMessage(message(MESSAGES));
+    // the indexes of all the messages changed
+    Assert.assertEquals(1, metrics.fullRefreshes);
+    List<Integer> indexes = roundTrip();
+    Assert.assertEquals(MESSAGES, indexes.size());
+    Assert.assertEquals(0, (int) indexes.get(0));
+    Assert.assertEquals(MESSAGES - 1, (int) indexes.get(MESSAGES - 1));
+  }
+
+}
@@ -0,0 +1,223 @@
+/*-
+ * #%L
+ * Chat Assistant Add-on
+ * %%
+ * Copyright (C) 2023 - 2026 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.chatassistant.test;
+
+import com.flowingcode.vaadin.addons.chatassistant.ChatAssistant;
+import com.flowingcode.vaadin.addons.chatassistant.model.Message;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.server.Command;
+import com.vaadin.flow.server.VaadinSession;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AsyncIngestionTest {
+
+  private static final int PRODUCERS = 8;
+  private static final int MESSAGES_PER_PRODUCER = 2000;
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final ExecutorService accessExecutor = Executors.newSingleThreadExecutor();
+  private final AtomicInteger accessCount = new AtomicInteger();
+  private UI ui;
+
+  /** UI that runs access commands under the session lock on a separate thread. */
+  @SuppressWarnings("serial")
+  private class TestUI extends UI {
+    @Override
+    public Future<Void> access(Command command) {
+      accessCount.incrementAndGet();
+      return CompletableFuture.runAsync(() -> runLocked(command), accessExecutor);
+    }
+  }
+
+  @SuppressWarnings("serial")
+  @Before
+  public void setup() {
+    ui = new TestUI();
+    VaadinSession session = new VaadinSession(null) {
+      @Override
+      public Lock getLockInstance() {
+        return lock;
+      }
+
+      @Override
+      public boolean hasLock() {
+        return lock.isHeldByCurrentThread();
+      }
+
+      @Override
+      public void checkHasLock(String message) {}
+
+      @Override
+      public void checkHasLock() {}
+    };
+    runLocked(() -> ui.getInternals().setSession(session));
+  }
+
+  @After
+  public void tearDown() {
+    accessExecutor.shutdownNow();
+  }
+
+  private void runLocked(Command command) {
+    lock.lock();
+    try {
+      UI.setCurrent(ui);
+      command.execute();
+    } finally {
+      UI.setCurrent(null);
+      lock.unlock();
+    }
+  }
+
+  private void awaitDrain() throws Exception {
+    accessExecutor.submit(() -> {}).get(10, TimeUnit.SECONDS);
+  }
+
+  @Test
+  public void testConcurrentProducers() throws Exception {
+    List<Message> messages = new ArrayList<>();
+    ChatAssistant<Message> chatAssistant = new ChatAssistant<>(messages, false);
+    runLocked(() -> ui.add(chatAssistant));
+
+    CountDownLatch start = new CountDownLatch(1);
+    List<Thread> producers = new ArrayList<>();
+    for (int p = 0; p < PRODUCERS; p++) {
+      int producer = p;
+      Thread thread = new Thread(() -> {
+        try {
+          start.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+        for (int i = 0; i < MESSAGES_PER_PRODUCER; i++) {
+          Message message = Message.builder().content(producer + ":" + i).build();
+          chatAssistant.sendMessageAsync(message);
+          chatAssistant.appendToMessageAsync(message, "!");
+        }
+      });
+      thread.start();
+      producers.add(thread);
+    }
+    start.countDown();
+    for (Thread thread : producers) {
+      thread.join();
+    }
+    awaitDrain();
+
+    int total = PRODUCERS * MESSAGES_PER_PRODUCER;
+    Assert.assertEquals(total, messages.size());
+    Set<String> contents = new HashSet<>();
+    messages.forEach(message -> contents.add(message.getContent()));
+    Assert.assertEquals(total, contents.size());
+    Assert.assertTrue(contents.stream().allMatch(content -> content.endsWith("!")));
+    Assert.assertTrue("Expected batched access, got " + accessCount.get() + " calls",
+        accessCount.get() < total * 2);
+  }
+
+  @Test
+  public void testQueuedWhileDetached() throws Exception {
+    List<Message> messages = new ArrayList<>();
+    ChatAssistant<Message> chatAssistant = new ChatAssistant<>(messages, false);
+    chatAssistant.sendMessageAsync(Message.builder().content("queued").build());
+    Assert.assertTrue(messages.isEmpty());
+
+    runLocked(() -> ui.add(chatAssistant));
+    Assert.assertEquals(1, messages.size());
+    Assert.assertEquals(0, accessCount.get());
+  }
+
+  @Test
+  public void testStreamToMessage() throws Exception {
+    ChatAssistant<Message> chatAssistant = new ChatAssistant<>();
+    Message message = Message.builder().loading(true).build();
+    runLocked(() -> {
+      ui.add(chatAssistant);
+      chatAssistant.sendMessage(message);
+    });
+
+    List<String> tokens = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      tokens.add(i + " ");
+    }
+    chatAssistant.streamToMessage(message, tokens.stream()).get(10, TimeUnit.SECONDS);
+
+    Assert.assertFalse(message.isLoading());
+    Assert.assertEquals(String.join("", tokens), message.getContent());
+  }
+
+  @Test
+  public void testStreamPublisherCancelledOnDetach() throws Exception {
+    ChatAssistant<Message> chatAssistant = new ChatAssistant<>();
+    Message message = Message.builder().loading(true).build();
+    runLocked(() -> {
+      ui.add(chatAssistant);
+      chatAssistant.sendMessage(message);
+    });
+
+    AtomicBoolean cancelled = new AtomicBoolean();
+    Flow.Publisher<String> publisher = subscriber -> subscriber.onSubscribe(
+        new Flow.Subscription() {
+          private boolean sent;
+
+          @Override
+          public void request(long n) {
+            if (!sent) {
+              sent = true;
+              subscriber.onNext("first");
+            }
+          }
+
+          @Override
+          public void cancel() {
+            cancelled.set(true);
+          }
+        });
+
+    CompletableFuture<Void> completion = chatAssistant.streamToMessage(message, publisher);
+    while (message.isLoading()) {
+      awaitDrain();
+    }
+    Assert.assertEquals("first", message.getContent());
+
+    runLocked(() -> ui.remove(chatAssistant));
+    Assert.assertTrue(completion.isCancelled());
+    Assert.assertTrue(cancelled.get());
+  }
+
+}
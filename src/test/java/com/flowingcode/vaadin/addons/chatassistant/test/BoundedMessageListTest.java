@@ -0,0 +1,150 @@
+/*-
+ * #%L
+ * Chat Assistant Add-on
+ * %%
+ * Copyright (C) 2023 - 2026 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.chatassistant.test;
+
+import com.flowingcode.vaadin.addons.chatassistant.BoundedMessageList;
+import com.flowingcode.vaadin.addons.chatassistant.model.Message;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BoundedMessageListTest {
+
+  /** Message that counts the calls that obtain its content. */
+  @SuppressWarnings("serial")
+  private static class CountingMessage extends Message {
+    int contentCalls;
+
+    CountingMessage(String content) {
+      super(Message.builder().content(content));
+    }
+
+    @Override
+    public String getContent() {
+      contentCalls++;
+      return super.getContent();
+    }
+  }
+
+  private static Message message(String content) {
+    return Message.builder().content(content).build();
+  }
+
+  private static List<String> contents(List<Message> messages) {
+    return messages.stream().map(Message::getContent).collect(Collectors.toList());
+  }
+
+  @Test
+  public void testKeepsMostRecentMessages() {
+    BoundedMessageList<Message> messages = new BoundedMessageList<>(50);
+    List<Message> evicted = new ArrayList<>();
+    messages.addEvictionListener(evicted::addAll);
+
+    for (int i = 0; i < 120; i++) {
+      messages.add(message("m" + i));
+    }
+
+    Assert.assertEquals(50, messages.size());
+    Assert.assertEquals("m70", messages.get(0).getContent());
+    Assert.assertEquals("m119", messages.get(49).getContent());
+    Assert.assertEquals(70, evicted.size());
+    Assert.assertEquals("m0", evicted.get(0).getContent());
+    Assert.assertEquals("m69", evicted.get(69).getContent());
+  }
+
+  @Test
+  public void testKeepsMostRecentContent() {
+    BoundedMessageList<Message> messages = BoundedMessageList.withMaxContentLength(10);
+    List<Message> evicted = new ArrayList<>();
+    messages.addEvictionListener(evicted::addAll);
+
+    messages.add(message("aaaa"));
+    messages.add(message("bbbb"));
+    Assert.assertTrue(evicted.isEmpty());
+
+    messages.add(message("cccc"));
+    Assert.assertEquals(List.of("bbbb", "cccc"), contents(messages));
+    Assert.assertEquals(List.of("aaaa"), contents(evicted));
+    Assert.assertEquals(8, messages.getContentLength());
+  }
+
+  @Test
+  public void testContentUpdated() {
+    BoundedMessageList<Message> messages = BoundedMessageList.withMaxContentLength(10);
+    Message first = message("aaaa");
+    Message last = message("bbbb");
+    messages.add(first);
+    messages.add(last);
+
+    last.setContent("bbbbbb");
+    Assert.assertFalse(messages.contentUpdated(last));
+
+    last.setContent("bbbbbbbbbbbb");
+    Assert.assertTrue(messages.contentUpdated(last));
+    Assert.assertEquals(List.of(last), messages);
+    Assert.assertEquals(12, messages.getContentLength());
+  }
+
+  @Test
+  public void testCompressedContentNotInflated() throws Exception {
+    BoundedMessageList<Message> messages = BoundedMessageList.withMaxContentLength(1000);
+    CountingMessage message = new CountingMessage("a".repeat(100));
+    Assert.assertTrue(message.compressContent(1));
+    message.contentCalls = 0;
+
+    messages.add(message);
+    messages.contentUpdated(message);
+    messages.set(0, message);
+    Assert.assertEquals(100, messages.getContentLength());
+    Assert.assertEquals(0, message.contentCalls);
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(messages);
+    }
+    try (ObjectInputStream in =
+        new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+      @SuppressWarnings("unchecked")
+      BoundedMessageList<Message> copy = (BoundedMessageList<Message>) in.readObject();
+      CountingMessage read = (CountingMessage) copy.get(0);
+      Assert.assertEquals(100, copy.getContentLength());
+      Assert.assertEquals(0, read.contentCalls);
+      Assert.assertEquals("a".repeat(100), read.getContent());
+    }
+  }
+
+  @Test
+  public void testRemoveEvictionListener() {
+    BoundedMessageList<Message> messages = new BoundedMessageList<>(1);
+    List<Message> evicted = new ArrayList<>();
+    messages.addEvictionListener(evicted::addAll).remove();
+    messages.add(message("a"));
+    messages.add(message("b"));
+    Assert.assertTrue(evicted.isEmpty());
+    Assert.assertEquals(List.of("b"), contents(messages));
+  }
+
+}
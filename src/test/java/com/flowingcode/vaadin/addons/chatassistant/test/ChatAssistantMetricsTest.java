@@ -0,0 +1,200 @@
+/*-
+ * #%L
+ * Chat Assistant Add-on
+ * %%
+ * Copyright (C) 2023 - 2026 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.chatassistant.test;
+
+import com.flowingcode.vaadin.addons.chatassistant.ChatAssistant;
+import com.flowingcode.vaadin.addons.chatassistant.metrics.ChatAssistantMetrics;
+import com.flowingcode.vaadin.addons.chatassistant.metrics.MicrometerChatAssistantMetrics;
+import com.flowingcode.vaadin.addons.chatassistant.model.Message;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.virtuallist.VirtualList;
+import com.vaadin.flow.server.Command;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ChatAssistantMetricsTest {
+
+  @SuppressWarnings("serial")
+  private static class RecordingMetrics implements ChatAssistantMetrics {
+    final AtomicInteger sent = new AtomicInteger();
+    final AtomicInteger updated = new AtomicInteger();
+    final AtomicInteger itemRefreshes = new AtomicInteger();
+    final AtomicInteger listRefreshes = new AtomicInteger();
+    final AtomicInteger fetches = new AtomicInteger();
+    final AtomicInteger fetchedItems = new AtomicInteger();
+    final AtomicLong pushed = new AtomicLong();
+    final AtomicInteger streamedTokens = new AtomicInteger();
+    final AtomicInteger queueDepth = new AtomicInteger();
+
+    @Override
+    public void messageSent() {
+      sent.incrementAndGet();
+    }
+
+    @Override
+    public void messageUpdated() {
+      updated.incrementAndGet();
+    }
+
+    @Override
+    public void refreshed(boolean all) {
+      (all ? listRefreshes : itemRefreshes).incrementAndGet();
+    }
+
+    @Override
+    public void fetched(int count, long nanos) {
+      fetches.incrementAndGet();
+      fetchedItems.addAndGet(count);
+    }
+
+    @Override
+    public void contentPushed(int length) {
+      pushed.addAndGet(length);
+    }
+
+    @Override
+    public void streamCompleted(int tokens, long nanos) {
+      streamedTokens.addAndGet(tokens);
+    }
+
+    @Override
+    public void queueDrained(int depth) {
+      queueDepth.accumulateAndGet(depth, Math::max);
+    }
+  }
+
+  /** UI that runs access commands right away. */
+  @SuppressWarnings("serial")
+  private static class TestUI extends UI {
+    @Override
+    public synchronized Future<Void> access(Command command) {
+      UI current = UI.getCurrent();
+      UI.setCurrent(this);
+      try {
+        command.execute();
+      } finally {
+        UI.setCurrent(current);
+      }
+      return CompletableFuture.completedFuture(null);
+    }
+  }
+
+  private TestUI ui;
+  private VirtualList<?> virtualList;
+
+  @Before
+  public void setup() {
+    ui = HeadlessUI.setCurrent(new TestUI());
+  }
+
+  @After
+  public void tearDown() {
+    UI.setCurrent(null);
+  }
+
+  /** Collects the changes to be sent to the client, which displays the first rows. */
+  private void roundTrip() {
+    synchronized (ui) {
+      virtualList.getDataCommunicator().setRequestedRange(0, 20);
+      HeadlessUI.roundTrip(ui);
+    }
+  }
+
+  private ChatAssistant<Message> attach(ChatAssistantMetrics metrics) {
+    ChatAssistant<Message> chatAssistant = new ChatAssistant<>();
+    chatAssistant.setMetrics(metrics);
+    virtualList = HeadlessUI.findVirtualList(chatAssistant);
+    ui.add(chatAssistant);
+    roundTrip();
+    return chatAssistant;
+  }
+
+  @Test
+  public void testNoOpByDefault() {
+    Assert.assertSame(ChatAssistantMetrics.noOp(), new ChatAssistant<>().getMetrics());
+    ChatAssistant<Message> chatAssistant = new ChatAssistant<>();
+    chatAssistant.setMetrics(new RecordingMetrics());
+    chatAssistant.setMetrics(null);
+    Assert.assertSame(ChatAssistantMetrics.noOp(), chatAssistant.getMetrics());
+  }
+
+  @Test
+  public void testReportedMetrics() throws Exception {
+    RecordingMetrics metrics = new RecordingMetrics();
+    ChatAssistant<Message> chatAssistant = attach(metrics);
+
+    Message question = Message.builder().name("User").content("Hello").build();
+    Message answer = Message.builder().name("Assistant").content("").build();
+    chatAssistant.sendMessage(question);
+    chatAssistant.sendMessage(answer);
+    roundTrip();
+    Assert.assertEquals(2, metrics.sent.get());
+    Assert.assertEquals(2, metrics.fetchedItems.get());
+    Assert.assertEquals("Hello".length(), metrics.pushed.get());
+
+    chatAssistant.appendToMessage(answer, "Hi");
+    chatAssistant.appendToMessage(answer, " there");
+    roundTrip();
+    Assert.assertEquals(2, metrics.updated.get());
+    Assert.assertEquals("Hello".length() + "Hi there".length(), metrics.pushed.get());
+
+    question.setContent("Hello!");
+    chatAssistant.updateMessage(question);
+    roundTrip();
+    Assert.assertEquals(3, metrics.updated.get());
+    Assert.assertEquals(1, metrics.itemRefreshes.get());
+
+    chatAssistant.sendMessageAsync(Message.builder().content("async").build());
+    Assert.assertEquals(1, metrics.queueDepth.get());
+
+    Message streamed = Message.builder().loading(true).build();
+    chatAssistant.sendMessage(streamed);
+    chatAssistant.streamToMessage(streamed, List.of("a", "b", "c").iterator())
+        .get(10, TimeUnit.SECONDS);
+    Assert.assertEquals(3, metrics.streamedTokens.get());
+    Assert.assertTrue(metrics.fetches.get() > 0);
+  }
+
+  @Test
+  public void testMicrometerMetrics() {
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    ChatAssistant<Message> chatAssistant =
+        attach(new MicrometerChatAssistantMetrics(registry, "view", "support"));
+    chatAssistant.sendMessage(Message.builder().content("Hello").build());
+    roundTrip();
+
+    Assert.assertEquals(1.0,
+        registry.get("chat.assistant.messages.sent").tag("view", "support").counter().count(),
+        0.0);
+    Assert.assertEquals(5.0,
+        registry.get("chat.assistant.content.pushed").summary().totalAmount(), 0.0);
+    Assert.assertTrue(registry.get("chat.assistant.fetch").timer().count() > 0);
+  }
+
+}
@@ -0,0 +1,105 @@
+/*-
+ * #%L
+ * Chat Assistant Add-on
+ * %%
+ * Copyright (C) 2023 - 2026 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.chatassistant.test;
+
+import com.flowingcode.vaadin.addons.chatassistant.ChatMessage;
+import com.flowingcode.vaadin.addons.chatassistant.model.Message;
+import com.vaadin.flow.dom.Element;
+import java.lang.reflect.Field;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Checks the structure that determines the memory footprint of rendered messages, so that
+ * regressions show up in the build. The footprint in bytes is measured by the allocation of
+ * {@code ChatMessageBenchmark}.
+ */
+public class ChatMessageFootprintTest {
+
+  private static int countElements(Element element) {
+    return 1 + element.getChildren().mapToInt(ChatMessageFootprintTest::countElements).sum();
+  }
+
+  private static Object field(ChatMessage<?> chatMessage, String name) throws Exception {
+    Field field = ChatMessage.class.getDeclaredField(name);
+    field.setAccessible(true);
+    return field.get(chatMessage);
+  }
+
+  private static Message message(int i) {
+    return Message.builder().content("Message number " + i).name("Assistant").build();
+  }
+
+  @Test
+  public void testElementsPerMessage() {
+    Assert.assertEquals(1, countElements(new ChatMessage<>(message(0)).getElement()));
+    Assert.assertEquals(2, countElements(new ChatMessage<>(message(0), true).getElement()));
+    Assert.assertEquals(1, countElements(
+        new ChatMessage<>(Message.builder().content("").build(), true).getElement()));
+
+    Message loading = Message.builder().loading(true).build();
+    ChatMessage<Message> chatMessage = new ChatMessage<>(loading, true);
+    Assert.assertEquals(6, countElements(chatMessage.getElement()));
+    loading.setLoading(false);
+    loading.setContent("done");
+    chatMessage.setMessage(loading);
+    Assert.assertEquals(2, countElements(chatMessage.getElement()));
+  }
+
+  @Test
+  public void testIdentityEquality() {
+    Message message = message(0);
+    ChatMessage<Message> first = new ChatMessage<>(message);
+    ChatMessage<Message> second = new ChatMessage<>(message);
+    Assert.assertNotEquals(first, second);
+  }
+
+  @Test
+  public void testChildrenPerMessage() {
+    Assert.assertEquals(0, new ChatMessage<>(message(0)).getChildren().count());
+    Assert.assertEquals(1, new ChatMessage<>(message(0), true).getChildren().count());
+    Assert.assertEquals(0,
+        new ChatMessage<>(Message.builder().content("").build(), true).getChildren().count());
+    Assert.assertEquals(1,
+        new ChatMessage<>(Message.builder().loading(true).build()).getChildren().count());
+  }
+
+  @Test
+  public void testNoLoaderOrViewerBeforeFirstUse() throws Exception {
+    ChatMessage<Message> plain = new ChatMessage<>(message(0));
+    Assert.assertNull(field(plain, "loader"));
+    Assert.assertNull(field(plain, "markdownViewer"));
+
+    Message message = Message.builder().content("").build();
+    ChatMessage<Message> markdown = new ChatMessage<>(message, true);
+    Assert.assertNull(field(markdown, "loader"));
+    Assert.assertNull(field(markdown, "markdownViewer"));
+
+    message.setContent("done");
+    markdown.setMessage(message);
+    Assert.assertNull(field(markdown, "loader"));
+    Assert.assertNotNull(field(markdown, "markdownViewer"));
+
+    message.setLoading(true);
+    markdown.setMessage(message);
+    Assert.assertNotNull(field(markdown, "loader"));
+  }
+
+}
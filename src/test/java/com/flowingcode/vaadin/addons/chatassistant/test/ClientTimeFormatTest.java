@@ -0,0 +1,117 @@
+/*-
+ * #%L
+ * Chat Assistant Add-on
+ * %%
+ * Copyright (C) 2023 - 2026 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.chatassistant.test;
+
+import com.flowingcode.vaadin.addons.chatassistant.ChatMessage;
+import com.flowingcode.vaadin.addons.chatassistant.ClientTimeFormat;
+import com.flowingcode.vaadin.addons.chatassistant.model.Message;
+import com.vaadin.flow.component.UI;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.FormatStyle;
+import java.util.Locale;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ClientTimeFormatTest {
+
+  private static final LocalDateTime TIME = LocalDateTime.of(2024, 5, 1, 10, 30);
+
+  @Test
+  public void testServerFormatting() {
+    ChatMessage<Message> chatMessage =
+        new ChatMessage<>(Message.builder().messageTime(TIME).build());
+    Assert.assertEquals("2024-05-01 10:30", chatMessage.getElement().getAttribute("time"));
+    Assert.assertFalse(chatMessage.getElement().hasAttribute("data-epoch"));
+  }
+
+  @Test
+  public void testClientFormatting() {
+    ChatMessage<Message> chatMessage =
+        new ChatMessage<>(Message.builder().messageTime(TIME).build());
+    chatMessage.setClientTimeFormat(
+        ClientTimeFormat.ofPattern("dd/MM HH:mm").withMessageTimeZone(ZoneOffset.UTC));
+
+    Assert.assertFalse(chatMessage.getElement().hasAttribute("time"));
+    Assert.assertEquals(String.valueOf(TIME.toInstant(ZoneOffset.UTC).toEpochMilli()),
+        chatMessage.getElement().getAttribute("data-epoch"));
+
+    chatMessage.setMessage(Message.builder().build());
+    Assert.assertFalse(chatMessage.getElement().hasAttribute("data-epoch"));
+
+    chatMessage.setClientTimeFormat(null);
+    Assert.assertFalse(chatMessage.getElement().hasAttribute("data-time-format"));
+  }
+
+  private static String formatAttribute(ClientTimeFormat format) {
+    ChatMessage<Message> chatMessage =
+        new ChatMessage<>(Message.builder().messageTime(TIME).build());
+    chatMessage.setClientTimeFormat(format);
+    return chatMessage.getElement().getAttribute("data-time-format");
+  }
+
+  @Test
+  public void testFormatOptions() {
+    Assert.assertEquals("{\"pattern\":\"HH'h' \\\"\\\\\\u0009\"}",
+        formatAttribute(ClientTimeFormat.ofPattern("HH'h' \"\\\t")));
+    Assert.assertEquals(
+        "{\"dateStyle\":\"short\",\"timeStyle\":\"medium\",\"locale\":\"es-AR\"}",
+        formatAttribute(ClientTimeFormat.ofStyle(FormatStyle.SHORT, FormatStyle.MEDIUM)
+            .withLocale(Locale.forLanguageTag("es-AR"))));
+    Assert.assertEquals("{\"relative\":true}", formatAttribute(ClientTimeFormat.relative()));
+  }
+
+  private static long timeInvocations(UI ui) {
+    return HeadlessUI.roundTrip(ui).stream()
+        .filter(invocation -> invocation.getInvocation().getExpression()
+            .contains("fcChatMessageTime"))
+        .count();
+  }
+
+  @Test
+  public void testFormatSentOncePerAttach() {
+    UI ui = HeadlessUI.setCurrent(new UI());
+    try {
+      Message message = Message.builder().messageTime(TIME).content("a").build();
+      ChatMessage<Message> chatMessage = new ChatMessage<>(message);
+      chatMessage.setClientTimeFormat(ClientTimeFormat.relative());
+      ui.add(chatMessage);
+      Assert.assertEquals(1, timeInvocations(ui));
+      String format = chatMessage.getElement().getAttribute("data-time-format");
+      Assert.assertNotNull(format);
+
+      // updating the message only changes the attributes
+      for (int i = 0; i < 10; i++) {
+        message.setContent(message.getContent() + "a");
+        chatMessage.setMessage(message);
+      }
+      chatMessage.setMessage(Message.builder().messageTime(TIME.plusMinutes(1)).build());
+      Assert.assertEquals(0, timeInvocations(ui));
+      Assert.assertEquals(format, chatMessage.getElement().getAttribute("data-time-format"));
+
+      ui.remove(chatMessage);
+      ui.add(chatMessage);
+      Assert.assertEquals(1, timeInvocations(ui));
+    } finally {
+      UI.setCurrent(null);
+    }
+  }
+
+}
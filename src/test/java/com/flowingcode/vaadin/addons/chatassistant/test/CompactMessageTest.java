@@ -0,0 +1,115 @@
+/*-
+ * #%L
+ * Chat Assistant Add-on
+ * %%
+ * Copyright (C) 2023 - 2026 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.chatassistant.test;
+
+import com.flowingcode.vaadin.addons.chatassistant.ChatAssistant;
+import com.flowingcode.vaadin.addons.chatassistant.CustomMessage;
+import com.flowingcode.vaadin.addons.chatassistant.model.Message;
+import java.lang.reflect.Method;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CompactMessageTest {
+
+  @Test
+  public void testBuilder() {
+    LocalDateTime time = LocalDateTime.of(2024, 5, 1, 10, 30, 15, 123456789);
+    CustomMessage message = CustomMessage.builder().name("Assistant").avatar("chatbot.png")
+        .messageTime(time).content("Hello").tagline("Generated by assistant").build();
+
+    Assert.assertEquals("Assistant", message.getName());
+    Assert.assertEquals("chatbot.png", message.getAvatar());
+    Assert.assertEquals(time, message.getMessageTime());
+    Assert.assertEquals("Hello", message.getContent());
+    Assert.assertEquals("Generated by assistant", message.getTagline());
+
+    Message empty = Message.builder().build();
+    Assert.assertNull(empty.getName());
+    Assert.assertNull(empty.getSender());
+    Assert.assertNull(empty.getMessageTime());
+    Assert.assertEquals("", empty.getContent());
+  }
+
+  @Test
+  public void testSetters() {
+    Message message = Message.builder().name("User").build();
+    message.setAvatar("user.png");
+    Assert.assertEquals("User", message.getName());
+    Assert.assertEquals("user.png", message.getAvatar());
+    message.setMessageTime(LocalDateTime.of(1900, 1, 1, 0, 0));
+    Assert.assertEquals(LocalDateTime.of(1900, 1, 1, 0, 0), message.getMessageTime());
+    message.setMessageTime(null);
+    Assert.assertNull(message.getMessageTime());
+  }
+
+  @Test
+  public void testExtremeMessageTimes() {
+    for (LocalDateTime time : List.of(LocalDateTime.MIN, LocalDateTime.MAX,
+        LocalDateTime.of(1600, 1, 1, 0, 0, 0, 1), LocalDateTime.of(2300, 12, 31, 23, 59))) {
+      Assert.assertEquals(time, Message.builder().messageTime(time).build().getMessageTime());
+      Message message = Message.builder().build();
+      message.setMessageTime(time);
+      Assert.assertEquals(time, message.getMessageTime());
+    }
+  }
+
+  @Test
+  public void testBuilderHidesRepresentation() {
+    for (Method method : Message.MessageBuilder.class.getMethods()) {
+      Assert.assertFalse(method.getName(),
+          Set.of("compressedContent", "compressedLength", "epochSecond", "nano").contains(method.getName()));
+    }
+  }
+
+  @Test
+  public void testCompressContent() {
+    String content = "Lorem ipsum dolor sit amet, consectetur adipiscing elit. ñandú ✓\n".repeat(50);
+    Message message = Message.builder().content(content).build();
+    Assert.assertFalse(message.compressContent(content.length() + 1));
+    Assert.assertTrue(message.compressContent(content.length()));
+    Assert.assertTrue(message.isContentCompressed());
+    Assert.assertEquals(content.length(), message.getContentLength());
+    Assert.assertEquals(content, message.getContent());
+
+    message.setContent("short");
+    Assert.assertFalse(message.isContentCompressed());
+    Assert.assertEquals("short", message.getContent());
+    Assert.assertEquals(5, message.getContentLength());
+
+    Message loading = Message.builder().loading(true).content(content).build();
+    Assert.assertFalse(loading.compressContent(1));
+  }
+
+  @Test
+  public void testSendersAreInterned() {
+    ChatAssistant<Message> chatAssistant = new ChatAssistant<>();
+    Message first = Message.builder().name("Assistant").avatar("chatbot.png").build();
+    Message second = Message.builder().name("Assistant").avatar("chatbot.png").build();
+    Assert.assertNotSame(first.getSender(), second.getSender());
+
+    chatAssistant.sendMessage(first);
+    chatAssistant.sendMessage(second);
+    Assert.assertSame(first.getSender(), second.getSender());
+  }
+
+}
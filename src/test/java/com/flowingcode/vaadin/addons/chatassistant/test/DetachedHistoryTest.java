@@ -0,0 +1,148 @@
+/*-
+ * #%L
+ * Chat Assistant Add-on
+ * %%
+ * Copyright (C) 2023 - 2026 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.chatassistant.test;
+
+import com.flowingcode.vaadin.addons.chatassistant.ChatAssistant;
+import com.flowingcode.vaadin.addons.chatassistant.model.Message;
+import com.flowingcode.vaadin.addons.chatassistant.store.HistorySource;
+import com.vaadin.flow.component.Component;
+import com.vaadin.flow.component.virtuallist.VirtualList;
+import com.vaadin.flow.data.provider.DataProvider;
+import com.vaadin.flow.data.provider.Query;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DetachedHistoryTest {
+
+  private static final Map<String, List<Message>> CONVERSATIONS = new ConcurrentHashMap<>();
+  private static final AtomicInteger LOADS = new AtomicInteger();
+
+  @SuppressWarnings("serial")
+  private static class ConversationSource implements HistorySource<Message> {
+    @Override
+    public List<Message> load(String conversationKey) {
+      LOADS.incrementAndGet();
+      return CONVERSATIONS.getOrDefault(conversationKey, List.of());
+    }
+  }
+
+  @Before
+  public void setup() {
+    LOADS.set(0);
+    CONVERSATIONS.clear();
+    CONVERSATIONS.put("short", conversation(10));
+    CONVERSATIONS.put("long", conversation(2000));
+  }
+
+  private static List<Message> conversation(int size) {
+    return IntStream.range(0, size)
+        .mapToObj(i -> Message.builder().name(i % 2 == 0 ? "User" : "Assistant")
+            .content("Message number " + i).build())
+        .collect(Collectors.toCollection(CopyOnWriteArrayList::new));
+  }
+
+  private static byte[] serialize(Object obj) throws IOException {
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    try (ObjectOutputStream oos = new ObjectOutputStream(baos)) {
+      oos.writeObject(obj);
+    }
+    return baos.toByteArray();
+  }
+
+  private static Object deserialize(byte[] data) throws IOException, ClassNotFoundException {
+    try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(data))) {
+      return in.readObject();
+    }
+  }
+
+  private static VirtualList<?> virtualList(Component component) {
+    if (component instanceof VirtualList<?> list) {
+      return list;
+    }
+    return component.getChildren().map(DetachedHistoryTest::virtualList)
+        .filter(list -> list != null).findFirst().orElse(null);
+  }
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private static List<Message> items(ChatAssistant<?> chatAssistant) {
+    DataProvider dataProvider = virtualList(chatAssistant).getDataProvider();
+    return (List<Message>) dataProvider.fetch(new Query<>()).collect(Collectors.toList());
+  }
+
+  private static long count(ChatAssistant<?> chatAssistant) {
+    return items(chatAssistant).size();
+  }
+
+  private static ChatAssistant<Message> chatAssistant(String conversationKey) {
+    ChatAssistant<Message> chatAssistant = new ChatAssistant<>();
+    chatAssistant.setDetachedHistory(conversationKey, new ConversationSource());
+    Message message = Message.builder().name("User").content("Hello").build();
+    chatAssistant.sendMessage(message);
+    CONVERSATIONS.get(conversationKey).add(message);
+    return chatAssistant;
+  }
+
+  @Test
+  public void testSerializedSizeDoesNotDependOnHistory() throws Exception {
+    int shortSize = serialize(chatAssistant("short")).length;
+    int longSize = serialize(chatAssistant("long")).length;
+    Assert.assertTrue(shortSize + " vs " + longSize, Math.abs(longSize - shortSize) < 64);
+  }
+
+  @Test
+  public void testRehydratedLazily() throws Exception {
+    ChatAssistant<Message> chatAssistant = chatAssistant("long");
+    Assert.assertEquals(1, LOADS.get());
+    Assert.assertEquals(2001, count(chatAssistant));
+
+    @SuppressWarnings("unchecked")
+    ChatAssistant<Message> copy = (ChatAssistant<Message>) deserialize(serialize(chatAssistant));
+    Assert.assertEquals(1, LOADS.get());
+    Assert.assertEquals("long", copy.getConversationKey());
+
+    Assert.assertEquals(2001, count(copy));
+    Assert.assertEquals(2, LOADS.get());
+    Assert.assertEquals(2001, count(copy));
+    Assert.assertEquals(2, LOADS.get());
+  }
+
+  @Test
+  public void testSharedSendersAfterLoad() {
+    ChatAssistant<Message> chatAssistant = chatAssistant("short");
+    List<Message> items = items(chatAssistant);
+    Assert.assertSame(items.get(0).getSender(), items.get(2).getSender());
+    Assert.assertSame(items.get(0).getSender(), items.get(10).getSender());
+    Assert.assertNull(new ChatAssistant<>().getConversationKey());
+  }
+
+}
@@ -0,0 +1,92 @@
+/*-
+ * #%L
+ * Chat Assistant Add-on
+ * %%
+ * Copyright (C) 2023 - 2026 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.chatassistant.test;
+
+import com.vaadin.flow.component.Component;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.internal.PendingJavaScriptInvocation;
+import com.vaadin.flow.component.virtuallist.VirtualList;
+import com.vaadin.flow.internal.ConstantPool;
+import com.vaadin.flow.internal.StateTree;
+import com.vaadin.flow.server.VaadinSession;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Runs a UI without a servlet container: the UI is given a session that is always locked, and the
+ * changes that would be sent to the client are collected on demand.
+ */
+final class HeadlessUI {
+
+  private HeadlessUI() {}
+
+  /** Gives the UI a session that is always locked, and makes it the current UI. */
+  @SuppressWarnings("serial")
+  static <U extends UI> U setCurrent(U ui) {
+    ui.getInternals().setSession(new VaadinSession(null) {
+      @Override
+      public boolean hasLock() {
+        return true;
+      }
+
+      @Override
+      public void checkHasLock(String message) {}
+
+      @Override
+      public void checkHasLock() {}
+    });
+    UI.setCurrent(ui);
+    return ui;
+  }
+
+  /** Returns the JavaScript invocations sent to the client in the next response. */
+  static List<PendingJavaScriptInvocation> roundTrip(UI ui) {
+    StateTree stateTree = ui.getInternals().getStateTree();
+    stateTree.runExecutionsBeforeClientResponse();
+    stateTree.collectChanges(change -> {});
+    return ui.getInternals().dumpPendingJavaScriptInvocations();
+  }
+
+  /** Returns the length of the changes sent to the client in the next response. */
+  static int roundTripLength(UI ui) {
+    StateTree stateTree = ui.getInternals().getStateTree();
+    stateTree.runExecutionsBeforeClientResponse();
+    ConstantPool constantPool = new ConstantPool();
+    AtomicInteger length = new AtomicInteger();
+    stateTree.collectChanges(
+        change -> length.addAndGet(change.toJson(constantPool).toString().length()));
+    ui.getInternals().dumpPendingJavaScriptInvocations();
+    return length.get() + constantPool.dumpConstants().toString().length();
+  }
+
+  /** Returns the component and all its descendants. */
+  static Stream<Component> descendants(Component component) {
+    return Stream.concat(Stream.of(component),
+        component.getChildren().flatMap(HeadlessUI::descendants));
+  }
+
+  /** Returns the virtual list of the messages in the component, or null if it was not created. */
+  static VirtualList<?> findVirtualList(Component component) {
+    return descendants(component).filter(VirtualList.class::isInstance)
+        .map(VirtualList.class::cast).findFirst().orElse(null);
+  }
+
+}
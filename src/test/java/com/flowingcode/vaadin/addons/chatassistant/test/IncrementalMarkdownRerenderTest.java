@@ -0,0 +1,165 @@
+/*-
+ * #%L
+ * Chat Assistant Add-on
+ * %%
+ * Copyright (C) 2023 - 2026 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.chatassistant.test;
+
+import com.flowingcode.vaadin.addons.chatassistant.ChatMessage;
+import com.flowingcode.vaadin.addons.chatassistant.model.Message;
+import com.flowingcode.vaadin.addons.markdown.MarkdownViewer;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Streams markdown answers token by token, and measures how many characters of markdown are sent
+ * again to the client on each token.
+ */
+public class IncrementalMarkdownRerenderTest {
+
+  private static final int BLOCKS = 200;
+
+  private static String sampleDocument() {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < BLOCKS; i++) {
+      switch (i % 4) {
+        case 0:
+          sb.append("## Section ").append(i).append("\n\n");
+          break;
+        case 1:
+          sb.append("```java\nint a = ").append(i).append(";\n\nint b = a * 2;\n```\n\n");
+          break;
+        case 2:
+          sb.append("- first item\n- second item\n  continued line\n\n");
+          break;
+        default:
+          sb.append("This is paragraph number ").append(i)
+              .append(", with some *emphasis* and `inline code`.\n\n");
+      }
+    }
+    return sb.toString();
+  }
+
+  private static List<String> tokenize(String document) {
+    List<String> tokens = new ArrayList<>();
+    int start = 0;
+    for (int i = 1; i <= document.length(); i++) {
+      if (i == document.length() || Character.isWhitespace(document.charAt(i - 1))) {
+        tokens.add(document.substring(start, i));
+        start = i;
+      }
+    }
+    return tokens;
+  }
+
+  /** Streams the document and returns the number of characters rendered again on each token. */
+  private static int[] stream(ChatMessage<Message> chatMessage, List<String> tokens) {
+    Message message = chatMessage.getMessage();
+    int[] rendered = new int[tokens.size()];
+    Map<MarkdownViewer, String> previous = new IdentityHashMap<>();
+    for (int i = 0; i < tokens.size(); i++) {
+      message.setContent(message.getContent() + tokens.get(i));
+      chatMessage.appendContent();
+      for (MarkdownViewer viewer : viewers(chatMessage)) {
+        String content = viewer.getContent();
+        if (!content.equals(previous.put(viewer, content))) {
+          rendered[i] += content.length();
+        }
+      }
+    }
+    return rendered;
+  }
+
+  private static List<MarkdownViewer> viewers(ChatMessage<?> chatMessage) {
+    return chatMessage.getChildren().filter(MarkdownViewer.class::isInstance)
+        .map(MarkdownViewer.class::cast).collect(Collectors.toList());
+  }
+
+  private static double average(int[] values, int from, int to) {
+    double sum = 0;
+    for (int i = from; i < to; i++) {
+      sum += values[i];
+    }
+    return sum / (to - from);
+  }
+
+  @Test
+  public void testRerenderedCharactersPerTokenAreFlat() {
+    String document = sampleDocument();
+    List<String> tokens = tokenize(document);
+    int quarter = tokens.size() / 4;
+
+    ChatMessage<Message> incremental = new ChatMessage<>(Message.builder().build(), true, true);
+    int[] rendered = stream(incremental, tokens);
+    double first = average(rendered, 0, quarter);
+    double last = average(rendered, tokens.size() - quarter, tokens.size());
+    Assert.assertTrue("Re-rendered characters per token grew from " + first + " to " + last,
+        last < first * 2);
+
+    ChatMessage<Message> full = new ChatMessage<>(Message.builder().build(), true);
+    int[] fullRendered = stream(full, tokens);
+    Assert.assertTrue(average(fullRendered, tokens.size() - quarter, tokens.size()) > last * 10);
+  }
+
+  @Test
+  public void testBlocksAddUpToContent() {
+    String document = sampleDocument();
+    ChatMessage<Message> chatMessage = new ChatMessage<>(Message.builder().build(), true, true);
+    stream(chatMessage, tokenize(document));
+    String displayed =
+        viewers(chatMessage).stream().map(MarkdownViewer::getContent).collect(Collectors.joining());
+    Assert.assertEquals(document, displayed);
+
+    // code blocks are never split at the blank lines they contain
+    Assert.assertTrue(viewers(chatMessage).stream().map(MarkdownViewer::getContent)
+        .filter(block -> block.startsWith("```"))
+        .allMatch(block -> block.contains("int b = a * 2;\n```")));
+  }
+
+  private static List<String> streamBlocks(String document) {
+    ChatMessage<Message> chatMessage = new ChatMessage<>(Message.builder().build(), true, true);
+    stream(chatMessage, tokenize(document));
+    return viewers(chatMessage).stream().map(MarkdownViewer::getContent)
+        .collect(Collectors.toList());
+  }
+
+  @Test
+  public void testLooseListsAreNotSplit() {
+    String document = "Intro\n\n- first\n\n- second\nlazy line\n\n- third\n\n"
+        + "1. one\n\n2. two\n\nAfter the lists\n";
+    Assert.assertEquals(List.of("Intro\n\n", "- first\n\n- second\nlazy line\n\n- third\n\n"
+        + "1. one\n\n2. two\n\n", "After the lists\n"), streamBlocks(document));
+  }
+
+  @Test
+  public void testDefinitionsAreNotSplit() {
+    String links = "See [the docs][docs].\n\nMore text.\n\n[docs]: https://example.com\n";
+    Assert.assertEquals(List.of(links), streamBlocks(links));
+
+    String footnotes = "A claim[^1].\n\nMore text.\n\n   [^1]: The source.\n\nAfter\n";
+    Assert.assertEquals(List.of(footnotes), streamBlocks(footnotes));
+
+    String code = "```\n[docs]: not a definition\n```\n\nText\n";
+    Assert.assertEquals(List.of("```\n[docs]: not a definition\n```\n\n", "Text\n"),
+        streamBlocks(code));
+  }
+}
@@ -0,0 +1,65 @@
+/*-
+ * #%L
+ * Chat Assistant Add-on
+ * %%
+ * Copyright (C) 2023 - 2026 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.chatassistant.test;
+
+import com.flowingcode.vaadin.addons.chatassistant.ChatAssistant;
+import com.flowingcode.vaadin.addons.chatassistant.model.Message;
+import com.vaadin.flow.component.UI;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class InitialPayloadTest {
+
+  private UI ui;
+
+  @Before
+  public void setup() {
+    ui = HeadlessUI.setCurrent(new UI());
+    HeadlessUI.roundTripLength(ui);
+  }
+
+  @After
+  public void tearDown() {
+    UI.setCurrent(null);
+  }
+
+  @Test
+  public void testInitialPayload() {
+    ChatAssistant<Message> chatAssistant = new ChatAssistant<>();
+    ui.add(chatAssistant);
+    int length = HeadlessUI.roundTripLength(ui);
+    // the payload was about 13700 characters when the constant styles were inlined
+    Assert.assertTrue("Initial payload: " + length, length < 9000);
+  }
+
+  @Test
+  public void testNoInlineStyles() {
+    ChatAssistant<Message> chatAssistant = new ChatAssistant<>();
+    HeadlessUI.descendants(chatAssistant)
+        .filter(component -> component.getClassNames().stream()
+            .anyMatch(className -> className.startsWith("fc-chat-assistant")))
+        .forEach(component -> Assert.assertEquals(component.getClassNames().toString(), 0,
+            component.getElement().getStyle().getNames().count()));
+    Assert.assertEquals(0, chatAssistant.getElement().getStyle().getNames().count());
+  }
+
+}
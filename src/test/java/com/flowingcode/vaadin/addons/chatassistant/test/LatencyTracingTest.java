@@ -0,0 +1,173 @@
+/*-
+ * #%L
+ * Chat Assistant Add-on
+ * %%
+ * Copyright (C) 2023 - 2026 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.chatassistant.test;
+
+import com.flowingcode.vaadin.addons.chatassistant.ChatAssistant;
+import com.flowingcode.vaadin.addons.chatassistant.LatencyTrace;
+import com.flowingcode.vaadin.addons.chatassistant.model.Message;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.internal.PendingJavaScriptInvocation;
+import com.vaadin.flow.component.virtuallist.VirtualList;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class LatencyTracingTest {
+
+  private UI ui;
+  private ChatAssistant<Message> chatAssistant;
+  private VirtualList<?> virtualList;
+
+  @Before
+  public void setup() {
+    ui = HeadlessUI.setCurrent(new UI());
+    chatAssistant = new ChatAssistant<>();
+    virtualList = HeadlessUI.findVirtualList(chatAssistant);
+    ui.add(chatAssistant);
+    roundTrip();
+  }
+
+  @After
+  public void tearDown() {
+    UI.setCurrent(null);
+  }
+
+  /** Returns the trace requests sent to the client in the next response. */
+  private List<Object[]> roundTrip() {
+    virtualList.getDataCommunicator().setRequestedRange(0, 20);
+    return HeadlessUI.roundTrip(ui).stream()
+        .map(PendingJavaScriptInvocation::getInvocation)
+        .filter(invocation -> invocation.getExpression().contains(".tracePaint("))
+        .map(invocation -> invocation.getParameters().subList(1, 4).toArray())
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Reports the paint of the given trace requests, as the client would, as if they were sent the
+   * given number of milliseconds earlier.
+   */
+  private void reportPaints(List<Object[]> traces, long sentEarlier) throws Exception {
+    double clientNow = 10_000;
+    double[] times = new double[traces.size() * 3];
+    String[] messageIds = new String[traces.size()];
+    for (int i = 0; i < traces.size(); i++) {
+      Object[] trace = traces.get(i);
+      times[3 * i] = ((Number) trace[0]).doubleValue();
+      times[3 * i + 1] = ((Number) trace[1]).doubleValue() - sentEarlier;
+      times[3 * i + 2] = clientNow;
+      messageIds[i] = (String) trace[2];
+    }
+    Method method = ChatAssistant.class.getDeclaredMethod("reportPaints", double[].class,
+        String[].class, double.class);
+    method.setAccessible(true);
+    method.invoke(chatAssistant, times, messageIds, clientNow);
+  }
+
+  @Test
+  public void testDisabledByDefault() {
+    Assert.assertFalse(chatAssistant.isLatencyTracing());
+    Assert.assertNull(chatAssistant.getLatencyTrace());
+    chatAssistant.sendMessage(Message.builder().content("Hello").build());
+    Assert.assertTrue(roundTrip().isEmpty());
+  }
+
+  @Test
+  public void testTraceUpdates() throws Exception {
+    chatAssistant.setLatencyTracing(true);
+    Message answer = Message.builder().loading(true).build();
+    chatAssistant.sendMessage(answer);
+    Assert.assertTrue("loading messages have no content to trace", roundTrip().isEmpty());
+
+    answer.setLoading(false);
+    chatAssistant.appendToMessage(answer, "Hi");
+    List<Object[]> traces = roundTrip();
+    chatAssistant.appendToMessage(answer, " there");
+    traces.addAll(roundTrip());
+    Assert.assertEquals(2, traces.size());
+    Assert.assertEquals(answer.getId().toString(), traces.get(0)[2]);
+    Assert.assertTrue(((Number) traces.get(1)[0]).longValue()
+        > ((Number) traces.get(0)[0]).longValue());
+
+    reportPaints(traces, 0);
+    LatencyTrace trace = chatAssistant.getLatencyTrace();
+    Assert.assertEquals(2, trace.getUpdateCount());
+    Assert.assertTrue(trace.getTimeToFirstToken(answer.getId()).isPresent());
+    Assert.assertTrue(trace.getUpdateLatency(99).compareTo(Duration.ofSeconds(5)) < 0);
+  }
+
+  @Test
+  public void testLatencyPercentiles() throws Exception {
+    chatAssistant.setLatencyTracing(true);
+    Message message = Message.builder().content("").build();
+    chatAssistant.sendMessage(message);
+    roundTrip();
+    for (int i = 1; i <= 100; i++) {
+      chatAssistant.appendToMessage(message, "x");
+      List<Object[]> traces = roundTrip();
+      reportPaints(traces, i * 10);
+    }
+    LatencyTrace trace = chatAssistant.getLatencyTrace();
+    Assert.assertEquals(100, trace.getUpdateCount());
+    long p50 = trace.getUpdateLatency(50).toMillis();
+    long p99 = trace.getUpdateLatency(99).toMillis();
+    Assert.assertTrue("p50 was " + p50, p50 >= 500 && p50 < 600);
+    Assert.assertTrue("p99 was " + p99, p99 >= 990 && p99 < 1090);
+
+    trace.reset();
+    Assert.assertEquals(Duration.ZERO, trace.getUpdateLatency(50));
+    chatAssistant.setLatencyTracing(false);
+    Assert.assertNull(chatAssistant.getLatencyTrace());
+  }
+
+  @Test
+  public void testDuplicateAndLostReports() throws Exception {
+    chatAssistant.setLatencyTracing(true);
+    Message message = Message.builder().content("").build();
+    chatAssistant.sendMessage(message);
+    roundTrip();
+    List<Object[]> traces = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      chatAssistant.appendToMessage(message, "x");
+      traces.addAll(roundTrip());
+    }
+    Assert.assertEquals(5, traces.size());
+
+    reportPaints(traces.subList(0, 2), 0);
+    reportPaints(traces.subList(0, 2), 0);
+    LatencyTrace trace = chatAssistant.getLatencyTrace();
+    Assert.assertEquals(2, trace.getUpdateCount());
+    Assert.assertEquals(0, trace.getLostCount());
+
+    reportPaints(traces.subList(4, 5), 0);
+    Assert.assertEquals(3, trace.getUpdateCount());
+    Assert.assertEquals(2, trace.getLostCount());
+
+    // late reports of the lost updates are discarded
+    reportPaints(traces.subList(2, 4), 0);
+    Assert.assertEquals(3, trace.getUpdateCount());
+  }
+
+}
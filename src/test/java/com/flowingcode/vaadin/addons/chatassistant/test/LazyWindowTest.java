@@ -0,0 +1,182 @@
+/*-
+ * #%L
+ * Chat Assistant Add-on
+ * %%
+ * Copyright (C) 2023 - 2026 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.chatassistant.test;
+
+import com.flowingcode.vaadin.addons.chatassistant.BoundedMessageList;
+import com.flowingcode.vaadin.addons.chatassistant.ChatAssistant;
+import com.flowingcode.vaadin.addons.chatassistant.model.Message;
+import com.vaadin.flow.component.Component;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.popover.Popover;
+import com.vaadin.flow.component.virtuallist.VirtualList;
+import com.vaadin.flow.data.provider.DataProvider;
+import com.vaadin.flow.data.provider.Query;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class LazyWindowTest {
+
+  private UI ui;
+
+  @Before
+  public void setup() {
+    ui = HeadlessUI.setCurrent(new UI());
+    HeadlessUI.roundTripLength(ui);
+  }
+
+  @After
+  public void tearDown() {
+    UI.setCurrent(null);
+  }
+
+  /** Exposes the chat window components, which subclasses can access. */
+  @SuppressWarnings("serial")
+  private static class InspectableChatAssistant extends ChatAssistant<Message> {
+    InspectableChatAssistant() {
+      super(new ArrayList<>(), false, true);
+    }
+
+    List<Component> windowComponents() {
+      return Arrays.asList(chatWindow, overlay, container, resizerTop, resizerBottom,
+          resizerTopRight, resizerBottomRight, resizerRight, resizerLeft, resizerBottomLeft,
+          resizerTopLeft);
+    }
+  }
+
+  private static Message message(String content) {
+    return Message.builder().content(content).build();
+  }
+
+  @Test
+  public void testWindowBuiltOnOpen() {
+    ChatAssistant<Message> chatAssistant = new ChatAssistant<>(new ArrayList<>(), false, true);
+    ui.add(chatAssistant);
+    HeadlessUI.roundTripLength(ui);
+    Assert.assertTrue(chatAssistant.isLazyWindow());
+    Assert.assertNull(HeadlessUI.findVirtualList(chatAssistant));
+    Assert.assertFalse(HeadlessUI.descendants(chatAssistant).anyMatch(Popover.class::isInstance));
+    Assert.assertFalse(chatAssistant.isOpened());
+
+    chatAssistant.open();
+    HeadlessUI.roundTripLength(ui);
+    Assert.assertTrue(chatAssistant.isOpened());
+    Assert.assertNotNull(HeadlessUI.findVirtualList(chatAssistant));
+    Assert.assertTrue(HeadlessUI.descendants(chatAssistant).anyMatch(Popover.class::isInstance));
+  }
+
+  @Test
+  public void testWindowComponentsCreatedOnOpen() {
+    InspectableChatAssistant chatAssistant = new InspectableChatAssistant();
+    chatAssistant.setWindowWidth("400px");
+    chatAssistant.setWindowMinHeight("150px");
+    ui.add(chatAssistant);
+    HeadlessUI.roundTripLength(ui);
+    Assert.assertTrue(chatAssistant.windowComponents().stream().allMatch(Objects::isNull));
+
+    chatAssistant.open();
+    Assert.assertTrue(chatAssistant.windowComponents().stream().allMatch(Objects::nonNull));
+    Component overlay = chatAssistant.windowComponents().get(1);
+    Assert.assertEquals("400px", overlay.getElement().getStyle().get("width"));
+    Assert.assertEquals("150px", overlay.getElement().getStyle().get("min-height"));
+  }
+
+  @Test
+  public void testQueuedMessages() {
+    List<Message> messages = new ArrayList<>();
+    ChatAssistant<Message> chatAssistant = new ChatAssistant<>(messages, false, true);
+    ui.add(chatAssistant);
+    HeadlessUI.roundTripLength(ui);
+    chatAssistant.setUnreadMessages(1);
+    chatAssistant.sendMessage(message("a"));
+    chatAssistant.sendMessage(message("b"));
+    chatAssistant.clearWhoIsTyping();
+    chatAssistant.scrollToEnd();
+    Assert.assertEquals(2, messages.size());
+    Assert.assertEquals(3, chatAssistant.getUnreadMessages());
+    Assert.assertNull(HeadlessUI.findVirtualList(chatAssistant));
+
+    chatAssistant.open();
+    Assert.assertEquals(1, chatAssistant.getUnreadMessages());
+    VirtualList<?> list = HeadlessUI.findVirtualList(chatAssistant);
+    Assert.assertEquals(2, list.getDataProvider().size(new Query<>()));
+
+    chatAssistant.sendMessage(message("c"));
+    Assert.assertEquals(1, chatAssistant.getUnreadMessages());
+  }
+
+  @Test
+  public void testBoundedListBeforeOpen() {
+    BoundedMessageList<Message> messages = new BoundedMessageList<>(2);
+    ChatAssistant<Message> chatAssistant = new ChatAssistant<>(messages, false, true);
+    ui.add(chatAssistant);
+    HeadlessUI.roundTripLength(ui);
+    for (int i = 0; i < 4; i++) {
+      chatAssistant.sendMessage(message("m" + i));
+    }
+    Assert.assertEquals(2, messages.size());
+    Assert.assertEquals(4, chatAssistant.getUnreadMessages());
+    Assert.assertNull(HeadlessUI.findVirtualList(chatAssistant));
+
+    chatAssistant.open();
+    VirtualList<?> list = HeadlessUI.findVirtualList(chatAssistant);
+    Assert.assertEquals(2, list.getDataProvider().size(new Query<>()));
+  }
+
+  @Test
+  public void testConfigurationBeforeOpen() {
+    List<Message> messages = new ArrayList<>();
+    ChatAssistant<Message> chatAssistant = new ChatAssistant<>(messages, false, true);
+    chatAssistant.setLightweightRendering(true);
+    chatAssistant.setDataProvider(DataProvider.ofItems(
+        message("x"), message("y"), message("z")));
+    Assert.assertNull(HeadlessUI.findVirtualList(chatAssistant));
+
+    chatAssistant.open();
+    VirtualList<?> list = HeadlessUI.findVirtualList(chatAssistant);
+    Assert.assertEquals(3, list.getDataProvider().size(new Query<>()));
+    Assert.assertTrue(chatAssistant.isLightweightRendering());
+  }
+
+  @Test
+  public void testHeaderBuildsWindow() {
+    ChatAssistant<Message> chatAssistant = new ChatAssistant<>(new ArrayList<>(), false, true);
+    Assert.assertNotNull(chatAssistant.getHeaderComponent());
+    Assert.assertNotNull(HeadlessUI.findVirtualList(chatAssistant));
+    Assert.assertFalse(chatAssistant.isOpened());
+  }
+
+  @Test
+  public void testInitialPayload() {
+    ChatAssistant<Message> eager = new ChatAssistant<>();
+    ui.add(eager);
+    int eagerLength = HeadlessUI.roundTripLength(ui);
+    ChatAssistant<Message> lazy = new ChatAssistant<>(new ArrayList<>(), false, true);
+    ui.add(lazy);
+    int lazyLength = HeadlessUI.roundTripLength(ui);
+    Assert.assertTrue(lazyLength + " * 2 >= " + eagerLength, lazyLength * 2 < eagerLength);
+  }
+
+}
@@ -0,0 +1,155 @@
+/*-
+ * #%L
+ * Chat Assistant Add-on
+ * %%
+ * Copyright (C) 2023 - 2026 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.chatassistant.test;
+
+import com.flowingcode.vaadin.addons.chatassistant.ChatAssistant;
+import com.flowingcode.vaadin.addons.chatassistant.ClientTimeFormat;
+import com.flowingcode.vaadin.addons.chatassistant.model.Message;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.html.Span;
+import com.vaadin.flow.component.internal.PendingJavaScriptInvocation;
+import com.vaadin.flow.data.renderer.ComponentRenderer;
+import elemental.json.JsonArray;
+import elemental.json.JsonObject;
+import elemental.json.JsonType;
+import elemental.json.JsonValue;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class LightweightRenderingTest {
+
+  private static final LocalDateTime TIME = LocalDateTime.of(2024, 5, 1, 10, 30);
+
+  private UI ui;
+  private ChatAssistant<Message> chatAssistant;
+
+  @Before
+  public void setup() {
+    ui = HeadlessUI.setCurrent(new UI());
+    List<Message> messages = new ArrayList<>();
+    messages.add(Message.builder().name("Assistant").avatar("chatbot.png").content("Hello")
+        .messageTime(TIME).build());
+    messages.add(Message.builder().name("User").loading(true).build());
+    chatAssistant = new ChatAssistant<>(messages, false);
+    ui.add(chatAssistant);
+    HeadlessUI.roundTrip(ui);
+  }
+
+  @After
+  public void tearDown() {
+    UI.setCurrent(null);
+  }
+
+  /** Returns the items sent to the client in the next response. */
+  private List<JsonObject> roundTrip() {
+    HeadlessUI.findVirtualList(chatAssistant).getDataCommunicator().setRequestedRange(0, 20);
+    List<JsonObject> items = new ArrayList<>();
+    HeadlessUI.roundTrip(ui).stream().map(PendingJavaScriptInvocation::getInvocation)
+        .filter(invocation -> invocation.getExpression().contains("$connector.set("))
+        .map(invocation -> (JsonArray) invocation.getParameters().get(2))
+        .forEach(array -> {
+          for (int i = 0; i < array.length(); i++) {
+            items.add(array.getObject(i));
+          }
+        });
+    return items;
+  }
+
+  private static String propertyKey(JsonObject item, String name) {
+    return Arrays.stream(item.keys())
+        .filter(key -> key.startsWith("lr_") && key.endsWith("_" + name)).findFirst()
+        .orElse(null);
+  }
+
+  /** Returns the value of a renderer property of the item. */
+  private static JsonValue property(JsonObject item, String name) {
+    String key = propertyKey(item, name);
+    Assert.assertNotNull("Missing property " + name + " in " + item.toJson(), key);
+    return item.get(key);
+  }
+
+  /** Returns whether the item was rendered by the lightweight template. */
+  private static boolean isLightweight(JsonObject item) {
+    return propertyKey(item, "content") != null;
+  }
+
+  /** Returns whether the item was rendered as a component. */
+  private static boolean isComponent(JsonObject item) {
+    return propertyKey(item, "nodeid") != null;
+  }
+
+  @Test
+  public void testItemProperties() {
+    chatAssistant.setLightweightRendering(true);
+    List<JsonObject> items = roundTrip();
+    Assert.assertEquals(2, items.size());
+
+    JsonObject message = items.get(0);
+    Assert.assertEquals("Assistant", property(message, "name").asString());
+    Assert.assertEquals("chatbot.png", property(message, "avatar").asString());
+    Assert.assertEquals("Hello", property(message, "content").asString());
+    Assert.assertEquals("2024-05-01 10:30", property(message, "time").asString());
+    Assert.assertFalse(property(message, "loading").asBoolean());
+    Assert.assertEquals(JsonType.NULL, property(message, "epoch").getType());
+    Assert.assertEquals(JsonType.NULL, property(message, "timeFormat").getType());
+
+    JsonObject loading = items.get(1);
+    Assert.assertTrue(property(loading, "loading").asBoolean());
+    Assert.assertEquals(JsonType.NULL, property(loading, "time").getType());
+  }
+
+  @Test
+  public void testClientTimeFormat() {
+    chatAssistant.setLightweightRendering(true);
+    chatAssistant.setClientTimeFormat(
+        ClientTimeFormat.ofPattern("dd/MM HH:mm").withMessageTimeZone(ZoneOffset.UTC));
+    JsonObject message = roundTrip().get(0);
+    Assert.assertEquals(TIME.toInstant(ZoneOffset.UTC).toEpochMilli(),
+        (long) property(message, "epoch").asNumber());
+    Assert.assertTrue(property(message, "timeFormat").asString().contains("dd/MM HH:mm"));
+    Assert.assertEquals(JsonType.NULL, property(message, "time").getType());
+  }
+
+  @Test
+  public void testSwitchBackToComponentRenderer() {
+    chatAssistant.setLightweightRendering(true);
+    Assert.assertTrue(roundTrip().stream().allMatch(LightweightRenderingTest::isLightweight));
+
+    chatAssistant.setLightweightRendering(false);
+    Assert.assertFalse(chatAssistant.isLightweightRendering());
+    List<JsonObject> items = roundTrip();
+    Assert.assertEquals(2, items.size());
+    Assert.assertTrue(items.stream().allMatch(LightweightRenderingTest::isComponent));
+    Assert.assertTrue(items.stream().noneMatch(LightweightRenderingTest::isLightweight));
+
+    chatAssistant.setLightweightRendering(true);
+    chatAssistant.setMessagesRenderer(new ComponentRenderer<>(message -> new Span(message.getContent())));
+    Assert.assertFalse(chatAssistant.isLightweightRendering());
+    Assert.assertTrue(roundTrip().stream().allMatch(LightweightRenderingTest::isComponent));
+  }
+
+}
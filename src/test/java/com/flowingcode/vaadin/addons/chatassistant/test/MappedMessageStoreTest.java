@@ -0,0 +1,176 @@
+/*-
+ * #%L
+ * Chat Assistant Add-on
+ * %%
+ * Copyright (C) 2023 - 2026 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.chatassistant.test;
+
+import com.flowingcode.vaadin.addons.chatassistant.model.Message;
+import com.flowingcode.vaadin.addons.chatassistant.store.MappedMessageStore;
+import com.flowingcode.vaadin.addons.chatassistant.store.MessageCodec;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class MappedMessageStoreTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private MappedMessageStore<Message> createStore(Path directory) {
+    return new MappedMessageStore<>(directory, MessageCodec.javaSerialization(), 4096);
+  }
+
+  private static List<String> contents(MappedMessageStore<Message> store, int offset, int limit) {
+    return store.fetch(offset, limit).map(Message::getContent).collect(Collectors.toList());
+  }
+
+  @Test
+  public void testAppendAndFetch() throws IOException {
+    Path directory = folder.newFolder().toPath();
+    MappedMessageStore<Message> store = createStore(directory);
+    for (int i = 0; i < 500; i++) {
+      store.append(Message.builder().content("message " + i).build());
+    }
+
+    Assert.assertEquals(500, store.size());
+    Assert.assertEquals(List.of("message 100", "message 101"), contents(store, 100, 2));
+    Assert.assertEquals(List.of("message 499"), contents(store, 499, 10));
+    Assert.assertTrue(contents(store, 500, 10).isEmpty());
+    try (var files = Files.list(directory)) {
+      Assert.assertTrue("Expected several segments", files.count() > 1);
+    }
+  }
+
+  @Test
+  public void testUpdate() throws IOException {
+    MappedMessageStore<Message> store = createStore(folder.newFolder().toPath());
+    Message first = Message.builder().content("first").build();
+    Message last = Message.builder().content("").build();
+    store.append(first);
+    store.append(last);
+
+    for (String token : "a streamed answer".split("(?<= )")) {
+      last.setContent(last.getContent() + token);
+      store.update(last);
+    }
+    first.setContent("edited");
+    store.update(first);
+
+    Assert.assertEquals(2, store.size());
+    Assert.assertEquals(List.of("edited", "a streamed answer"), contents(store, 0, 2));
+  }
+
+  @Test
+  public void testUpdatesCoalesced() throws IOException {
+    AtomicInteger encoded = new AtomicInteger();
+    MessageCodec<Message> codec = new MessageCodec<>() {
+      private final MessageCodec<Message> delegate = MessageCodec.javaSerialization();
+
+      @Override
+      public byte[] encode(Message message) {
+        encoded.incrementAndGet();
+        return delegate.encode(message);
+      }
+
+      @Override
+      public Message decode(byte[] data) {
+        return delegate.decode(data);
+      }
+    };
+    Path directory = folder.newFolder().toPath();
+    MappedMessageStore<Message> store = new MappedMessageStore<>(directory, codec, 4096);
+    Message answer = Message.builder().content("").build();
+    store.append(answer);
+    for (int i = 0; i < 1000; i++) {
+      answer.setContent(answer.getContent() + "token ");
+      store.update(answer);
+    }
+    Assert.assertEquals(1, encoded.get());
+    Assert.assertEquals(6000, contents(store, 0, 1).get(0).length());
+
+    store.append(Message.builder().content("next").build());
+    Assert.assertEquals(3, encoded.get());
+    store.update(answer);
+    store.close();
+    Assert.assertEquals(4, encoded.get());
+
+    MappedMessageStore<Message> reopened = new MappedMessageStore<>(directory, codec, 4096);
+    Assert.assertEquals(6000, contents(reopened, 0, 1).get(0).length());
+    Assert.assertEquals(List.of("next"), contents(reopened, 1, 1));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUpdateUnknownMessage() throws IOException {
+    MappedMessageStore<Message> store = createStore(folder.newFolder().toPath());
+    store.append(Message.builder().build());
+    store.update(Message.builder().build());
+  }
+
+  @Test
+  public void testReopen() throws IOException {
+    Path directory = folder.newFolder().toPath();
+    MappedMessageStore<Message> store = createStore(directory);
+    Message message = Message.builder().content("draft").build();
+    for (int i = 0; i < 100; i++) {
+      store.append(Message.builder().content("message " + i).build());
+    }
+    store.append(message);
+    message.setContent("final");
+    store.update(message);
+    store.close();
+
+    MappedMessageStore<Message> reopened = createStore(directory);
+    Assert.assertEquals(101, reopened.size());
+    Assert.assertEquals(List.of("message 99", "final"), contents(reopened, 99, 2));
+    Assert.assertEquals(message.getId(), reopened.fetch(100, 1).findFirst().get().getId());
+
+    reopened.append(Message.builder().content("after reopen").build());
+    Assert.assertEquals(List.of("final", "after reopen"), contents(reopened, 100, 2));
+  }
+
+  @Test
+  public void testSerialization() throws IOException, ClassNotFoundException {
+    MappedMessageStore<Message> store = createStore(folder.newFolder().toPath());
+    store.append(Message.builder().content("hello").build());
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(store);
+    }
+    store.close();
+
+    try (ObjectInputStream in =
+        new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+      @SuppressWarnings("unchecked")
+      MappedMessageStore<Message> deserialized = (MappedMessageStore<Message>) in.readObject();
+      Assert.assertEquals(List.of("hello"), contents(deserialized, 0, 1));
+    }
+  }
+
+}
@@ -0,0 +1,94 @@
+/*-
+ * #%L
+ * Chat Assistant Add-on
+ * %%
+ * Copyright (C) 2023 - 2026 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.chatassistant.test;
+
+import com.flowingcode.vaadin.addons.chatassistant.model.Message;
+import com.flowingcode.vaadin.addons.chatassistant.model.MessageIdGenerator;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MessageIdGeneratorTest {
+
+  @After
+  public void tearDown() {
+    Message.setIdGenerator(MessageIdGenerator.random());
+  }
+
+  @Test
+  public void testTimeOrderedIdsAreSorted() {
+    MessageIdGenerator generator = MessageIdGenerator.timeOrdered();
+    long before = System.currentTimeMillis();
+    List<UUID> ids = new ArrayList<>();
+    for (int i = 0; i < 100_000; i++) {
+      ids.add(generator.generate());
+    }
+    for (int i = 1; i < ids.size(); i++) {
+      Assert.assertTrue(ids.get(i - 1).compareTo(ids.get(i)) < 0);
+    }
+
+    UUID id = ids.get(0);
+    Assert.assertEquals(7, id.version());
+    Assert.assertEquals(2, id.variant());
+    Assert.assertTrue((id.getMostSignificantBits() >>> 16) >= before);
+  }
+
+  @Test
+  public void testTimeOrderedIdsAreUniqueAcrossThreads() throws InterruptedException {
+    MessageIdGenerator generator = MessageIdGenerator.timeOrdered();
+    Set<UUID> ids = ConcurrentHashMap.newKeySet();
+    List<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < 8; t++) {
+      Thread thread = new Thread(() -> {
+        for (int i = 0; i < 20_000; i++) {
+          ids.add(generator.generate());
+        }
+      });
+      thread.start();
+      threads.add(thread);
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    Assert.assertEquals(8 * 20_000, ids.size());
+  }
+
+  @Test
+  public void testMessageUsesIdGenerator() {
+    Message.setIdGenerator(MessageIdGenerator.timeOrdered());
+    Set<UUID> ids = new HashSet<>();
+    UUID previous = null;
+    for (int i = 0; i < 10; i++) {
+      UUID id = Message.builder().build().getId();
+      Assert.assertEquals(7, id.version());
+      Assert.assertTrue(previous == null || previous.compareTo(id) < 0);
+      ids.add(id);
+      previous = id;
+    }
+    Assert.assertEquals(10, ids.size());
+  }
+
+}
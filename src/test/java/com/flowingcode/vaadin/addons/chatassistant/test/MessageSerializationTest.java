@@ -0,0 +1,183 @@
+/*-
+ * #%L
+ * Chat Assistant Add-on
+ * %%
+ * Copyright (C) 2023 - 2026 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.chatassistant.test;
+
+import com.flowingcode.vaadin.addons.chatassistant.BoundedMessageList;
+import com.flowingcode.vaadin.addons.chatassistant.ChatAssistant;
+import com.flowingcode.vaadin.addons.chatassistant.CustomMessage;
+import com.flowingcode.vaadin.addons.chatassistant.model.Message;
+import com.flowingcode.vaadin.addons.chatassistant.model.Sender;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Checks the serialized form of messages, and compares its size with the default serialized form
+ * of a message holding the same fields as plain objects. Their speed is compared by the
+ * serialization benchmark of the {@code benchmark} profile, whose serialized sizes are checked
+ * here.
+ */
+public class MessageSerializationTest {
+
+  private static final int MESSAGES = 1000;
+
+  /** Message with the fields and the default serialized form of the previous message model. */
+  @SuppressWarnings("serial")
+  private static class LegacyMessage implements Serializable {
+    UUID id;
+    String content;
+    boolean loading;
+    String name;
+    String avatar;
+    LocalDateTime messageTime;
+  }
+
+  private static byte[] serialize(Object obj) throws IOException {
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    try (ObjectOutputStream oos = new ObjectOutputStream(baos)) {
+      oos.writeObject(obj);
+    }
+    return baos.toByteArray();
+  }
+
+  private static Object deserialize(byte[] data) throws IOException, ClassNotFoundException {
+    try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(data))) {
+      return in.readObject();
+    }
+  }
+
+  private static List<Message> conversation() {
+    Sender user = Sender.of("User", "user.png");
+    Sender assistant = Sender.of("Assistant", "chatbot.png");
+    LocalDateTime time = LocalDateTime.of(2024, 5, 1, 10, 30, 15, 123456000);
+    List<Message> messages = new ArrayList<>();
+    for (int i = 0; i < MESSAGES; i++) {
+      messages.add(Message.builder().sender(i % 2 == 0 ? user : assistant)
+          .messageTime(time.plusSeconds(i)).content("Message number " + i + ", how are you?")
+          .build());
+    }
+    return messages;
+  }
+
+  private static List<LegacyMessage> legacy(List<Message> messages) {
+    List<LegacyMessage> result = new ArrayList<>();
+    for (Message message : messages) {
+      LegacyMessage legacy = new LegacyMessage();
+      legacy.id = message.getId();
+      legacy.content = message.getContent();
+      legacy.loading = message.isLoading();
+      legacy.name = message.getName();
+      legacy.avatar = message.getAvatar();
+      legacy.messageTime = message.getMessageTime();
+      result.add(legacy);
+    }
+    return result;
+  }
+
+  @Test
+  public void testRoundTrip() throws Exception {
+    CustomMessage message = CustomMessage.builder().name("Assistant").avatar("chatbot.png")
+        .messageTime(LocalDateTime.of(2024, 5, 1, 10, 30, 15, 123456789)).content("Hello ñ ✓")
+        .tagline("Generated by assistant").loading(true).build();
+
+    CustomMessage copy = (CustomMessage) deserialize(serialize(message));
+    Assert.assertEquals(message.getId(), copy.getId());
+    Assert.assertEquals("Assistant", copy.getName());
+    Assert.assertEquals("chatbot.png", copy.getAvatar());
+    Assert.assertEquals(message.getMessageTime(), copy.getMessageTime());
+    Assert.assertEquals("Hello ñ ✓", copy.getContent());
+    Assert.assertEquals("Generated by assistant", copy.getTagline());
+    Assert.assertTrue(copy.isLoading());
+
+    Message empty = Message.builder().content(null).build();
+    empty.setId(null);
+    Message emptyCopy = (Message) deserialize(serialize(empty));
+    Assert.assertNull(emptyCopy.getId());
+    Assert.assertNull(emptyCopy.getContent());
+    Assert.assertNull(emptyCopy.getSender());
+    Assert.assertNull(emptyCopy.getMessageTime());
+  }
+
+  @Test
+  public void testExtremeMessageTimes() throws Exception {
+    for (LocalDateTime time : List.of(LocalDateTime.MIN, LocalDateTime.MAX)) {
+      Message message = Message.builder().messageTime(time).build();
+      Message copy = (Message) deserialize(serialize(message));
+      Assert.assertEquals(time, copy.getMessageTime());
+    }
+  }
+
+  @Test
+  public void testCompressedContent() throws Exception {
+    Message message = Message.builder().content("lorem ipsum ".repeat(100)).build();
+    Assert.assertTrue(message.compressContent(100));
+    Message copy = (Message) deserialize(serialize(message));
+    Assert.assertTrue(copy.isContentCompressed());
+    Assert.assertEquals(message.getContent(), copy.getContent());
+  }
+
+  @Test
+  public void testSharedSendersAreWrittenOnce() throws Exception {
+    @SuppressWarnings("unchecked")
+    List<Message> copy = (List<Message>) deserialize(serialize(conversation()));
+    Assert.assertSame(copy.get(0).getSender(), copy.get(2).getSender());
+    Assert.assertSame(copy.get(1).getSender(), copy.get(3).getSender());
+  }
+
+  @Test
+  public void testBoundedMessageList() throws Exception {
+    BoundedMessageList<Message> messages = BoundedMessageList.withMaxContentLength(10_000);
+    conversation().forEach(messages::add);
+
+    @SuppressWarnings("unchecked")
+    BoundedMessageList<Message> copy = (BoundedMessageList<Message>) deserialize(serialize(messages));
+    Assert.assertEquals(messages, copy);
+    Assert.assertEquals(messages.getContentLength(), copy.getContentLength());
+    copy.add(Message.builder().content("x".repeat(100)).build());
+    Assert.assertTrue(copy.getContentLength() <= 10_000);
+  }
+
+  @Test
+  public void testSmallerThanLegacyForm() throws Exception {
+    List<Message> messages = conversation();
+    List<LegacyMessage> legacyMessages = legacy(messages);
+    int size = serialize(messages).length;
+    int legacySize = serialize(legacyMessages).length;
+    Assert.assertTrue(size + " >= " + legacySize, size < legacySize * 0.8);
+  }
+
+  @Test
+  public void testChatAssistantSize() throws Exception {
+    // the size of the conversation serialized by the serialization benchmark
+    ChatAssistant<Message> chatAssistant = new ChatAssistant<>(conversation(), false);
+    int size = serialize(chatAssistant).length;
+    Assert.assertTrue("Serialized size: " + size, size < MESSAGES * 128);
+  }
+
+}
@@ -0,0 +1,127 @@
+/*-
+ * #%L
+ * Chat Assistant Add-on
+ * %%
+ * Copyright (C) 2023 - 2026 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.chatassistant.test;
+
+import com.flowingcode.vaadin.addons.chatassistant.ChatAssistant;
+import com.flowingcode.vaadin.addons.chatassistant.model.Message;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.internal.PendingJavaScriptInvocation;
+import com.vaadin.flow.data.provider.DataProvider;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ReverseLazyLoadingTest {
+
+  private static final int PAGE_SIZE = 10;
+
+  private UI ui;
+  private final List<Message> messages = new ArrayList<>();
+  private final List<String> fetches = new ArrayList<>();
+  private final DataProvider<Message, ?> dataProvider = DataProvider.fromCallbacks(query -> {
+    fetches.add(query.getOffset() + "+" + query.getLimit());
+    return messages.stream().skip(query.getOffset()).limit(query.getLimit());
+  }, query -> messages.size());
+
+  @Before
+  public void setup() {
+    ui = HeadlessUI.setCurrent(new UI());
+    addMessages(100);
+  }
+
+  @After
+  public void tearDown() {
+    UI.setCurrent(null);
+  }
+
+  private void addMessages(int count) {
+    int size = messages.size();
+    IntStream.range(size, size + count)
+        .forEach(i -> messages.add(Message.builder().content("Message " + i).build()));
+  }
+
+  private ChatAssistant<Message> createChatAssistant(boolean lazyWindow) {
+    ChatAssistant<Message> chatAssistant =
+        new ChatAssistant<>(new ArrayList<>(), false, lazyWindow);
+    chatAssistant.setDataProvider(dataProvider);
+    chatAssistant.setReverseLazyLoading(PAGE_SIZE);
+    return chatAssistant;
+  }
+
+  /** Returns the calls made to the connector of the virtual list in the next response. */
+  private List<String> roundTrip() {
+    fetches.clear();
+    List<String> calls = new ArrayList<>();
+    for (PendingJavaScriptInvocation invocation : HeadlessUI.roundTrip(ui)) {
+      String expression = invocation.getInvocation().getExpression();
+      List<Object> parameters = invocation.getInvocation().getParameters();
+      if (expression.contains("$connector.updateSize(")) {
+        calls.add("updateSize " + parameters.get(1));
+      } else if (expression.contains("$connector.set(")) {
+        calls.add("set " + parameters.get(1));
+      } else if (expression.contains("scrollToIndex")) {
+        calls.add("scrollToIndex " + parameters.get(0));
+      }
+    }
+    return calls;
+  }
+
+  private static List<String> tailPage(int size) {
+    return List.of("updateSize " + size, "set " + (size - PAGE_SIZE),
+        "scrollToIndex " + Integer.MAX_VALUE);
+  }
+
+  @Test
+  public void testTailPageOnAttach() {
+    ui.add(createChatAssistant(false));
+    Assert.assertEquals(tailPage(100), roundTrip());
+    Assert.assertEquals(List.of("90+10"), fetches);
+  }
+
+  @Test
+  public void testTailPageOnOpen() {
+    ChatAssistant<Message> chatAssistant = createChatAssistant(false);
+    ui.add(chatAssistant);
+    roundTrip();
+
+    addMessages(50);
+    dataProvider.refreshAll();
+    chatAssistant.open();
+    Assert.assertEquals(tailPage(150), roundTrip());
+    Assert.assertEquals(List.of("140+10"), fetches);
+  }
+
+  @Test
+  public void testTailPageOnOpenWithLazyWindow() {
+    ChatAssistant<Message> chatAssistant = createChatAssistant(true);
+    ui.add(chatAssistant);
+    Assert.assertEquals(List.of(), roundTrip());
+    Assert.assertEquals(List.of(), fetches);
+
+    chatAssistant.open();
+    Assert.assertEquals(tailPage(100), roundTrip());
+    Assert.assertEquals(List.of("90+10"), fetches);
+  }
+
+}
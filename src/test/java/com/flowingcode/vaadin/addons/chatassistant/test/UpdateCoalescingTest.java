@@ -0,0 +1,193 @@
+/*-
+ * #%L
+ * Chat Assistant Add-on
+ * %%
+ * Copyright (C) 2023 - 2026 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.chatassistant.test;
+
+import com.flowingcode.vaadin.addons.chatassistant.ChatAssistant;
+import com.flowingcode.vaadin.addons.chatassistant.metrics.ChatAssistantMetrics;
+import com.flowingcode.vaadin.addons.chatassistant.model.Message;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.server.Command;
+import java.time.Duration;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class UpdateCoalescingTest {
+
+  /** UI that queues access commands, which are run by the test thread. */
+  @SuppressWarnings("serial")
+  private static class TestUI extends UI {
+    final Queue<Command> commands = new ConcurrentLinkedQueue<>();
+
+    @Override
+    public Future<Void> access(Command command) {
+      commands.add(command);
+      return CompletableFuture.completedFuture(null);
+    }
+
+    /** Waits until an access command is queued, and runs the queued commands. */
+    void runQueued() throws InterruptedException {
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+      while (commands.isEmpty()) {
+        Assert.assertTrue("No access command was queued", System.nanoTime() < deadline);
+        Thread.sleep(5);
+      }
+      Command command;
+      while ((command = commands.poll()) != null) {
+        command.execute();
+      }
+    }
+  }
+
+  /** Records the content pushed by each refresh of a rendered message, and the item refreshes. */
+  @SuppressWarnings("serial")
+  private static class RecordingMetrics implements ChatAssistantMetrics {
+    final List<Integer> pushed = new CopyOnWriteArrayList<>();
+    int itemRefreshes;
+
+    @Override
+    public void refreshed(boolean all) {
+      if (!all) {
+        itemRefreshes++;
+      }
+    }
+
+    @Override
+    public void contentPushed(int length) {
+      pushed.add(length);
+    }
+  }
+
+  private TestUI ui;
+  private ChatAssistant<Message> chatAssistant;
+  private final RecordingMetrics metrics = new RecordingMetrics();
+
+  @Before
+  public void setup() {
+    ui = HeadlessUI.setCurrent(new TestUI());
+    chatAssistant = new ChatAssistant<>();
+    chatAssistant.setMetrics(metrics);
+    ui.add(chatAssistant);
+  }
+
+  @After
+  public void tearDown() {
+    UI.setCurrent(null);
+  }
+
+  /** Sends a message and renders it, so that appended content is pushed to its component. */
+  private Message sendMessage() {
+    Message message = Message.builder().content("").build();
+    chatAssistant.sendMessage(message);
+    HeadlessUI.findVirtualList(chatAssistant).getDataCommunicator().setRequestedRange(0, 20);
+    HeadlessUI.roundTrip(ui);
+    return message;
+  }
+
+  @Test
+  public void testAppendsMergedIntoOneRefresh() {
+    Message first = sendMessage();
+    Message second = sendMessage();
+    chatAssistant.setUpdateCoalescing(Duration.ofHours(1), 0);
+    // the first update is not delayed, since there was no recent flush
+    chatAssistant.appendToMessage(first, "x");
+    Assert.assertEquals(List.of(1), metrics.pushed);
+
+    for (int i = 0; i < 10; i++) {
+      chatAssistant.appendToMessage(first, "ab");
+      chatAssistant.appendToMessage(second, "c");
+    }
+    Assert.assertEquals(List.of(1), metrics.pushed);
+    chatAssistant.flushPendingUpdates();
+    Assert.assertEquals(List.of(1, 20, 10), metrics.pushed);
+  }
+
+  @Test
+  public void testMaxCharsFlush() {
+    Message message = sendMessage();
+    chatAssistant.setUpdateCoalescing(Duration.ofHours(1), 5);
+    chatAssistant.appendToMessage(message, "x");
+    chatAssistant.appendToMessage(message, "ab");
+    chatAssistant.appendToMessage(message, "cd");
+    Assert.assertEquals(List.of(1), metrics.pushed);
+    chatAssistant.appendToMessage(message, "e");
+    Assert.assertEquals(List.of(1, 5), metrics.pushed);
+  }
+
+  @Test
+  public void testIntervalFlush() throws Exception {
+    Message message = sendMessage();
+    chatAssistant.setUpdateCoalescing(Duration.ofMillis(50), 0);
+    chatAssistant.appendToMessage(message, "x");
+    chatAssistant.appendToMessage(message, "ab");
+    chatAssistant.appendToMessage(message, "c");
+    Assert.assertEquals(List.of(1), metrics.pushed);
+    ui.runQueued();
+    Assert.assertEquals(List.of(1, 3), metrics.pushed);
+  }
+
+  @Test
+  public void testFlushOnDetach() {
+    Message message = sendMessage();
+    chatAssistant.setUpdateCoalescing(Duration.ofHours(1), 0);
+    chatAssistant.appendToMessage(message, "x");
+    chatAssistant.appendToMessage(message, "ab");
+    // the rendered messages are detached with the list, so the update refreshes the item
+    ui.remove(chatAssistant);
+    Assert.assertEquals(List.of(1), metrics.pushed);
+    Assert.assertEquals(1, metrics.itemRefreshes);
+    chatAssistant.flushPendingUpdates();
+    Assert.assertEquals(1, metrics.itemRefreshes);
+  }
+
+  @Test
+  public void testStaleScheduledFlush() throws Exception {
+    Message message = sendMessage();
+    chatAssistant.setUpdateCoalescing(Duration.ofMillis(500), 3);
+    chatAssistant.appendToMessage(message, "x");
+    chatAssistant.appendToMessage(message, "a");
+    // wait until the scheduled flush is queued, and flush because of the size meanwhile
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (ui.commands.isEmpty()) {
+      Assert.assertTrue(System.nanoTime() < deadline);
+      Thread.sleep(5);
+    }
+    chatAssistant.appendToMessage(message, "bc");
+    Assert.assertEquals(List.of(1, 3), metrics.pushed);
+    chatAssistant.appendToMessage(message, "d");
+
+    // the stale flush does not flush, nor cancel the flush scheduled after it
+    Command stale = ui.commands.poll();
+    stale.execute();
+    Assert.assertEquals(List.of(1, 3), metrics.pushed);
+    ui.runQueued();
+    Assert.assertEquals(List.of(1, 3, 1), metrics.pushed);
+    Assert.assertTrue(ui.commands.isEmpty());
+  }
+
+}